@@ -5,6 +5,5 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ActivityRepository extends MongoRepository<Activity, String> {
-    // You can add custom queries later if needed
+public interface ActivityRepository extends MongoRepository<Activity, String>, ActivityHistoryRepository {
 }
@@ -1,11 +1,61 @@
 package com.fitness.activityservice.config;
 
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
 
 @Configuration
+// Both templates save activities, so both need their own auditing callbacks for createdAt/updatedAt
 @EnableMongoAuditing
-
+@EnableReactiveMongoAuditing
+@RequiredArgsConstructor
+@Slf4j
 public class MongoConfig {
 
+    // Documents whose @Indexed / @CompoundIndex declarations are created at startup
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Activity.class, ActivityRollup.class);
+
+    private static final String LEGACY_OUTBOX_INDEX = "outboxStatus";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+
+    // Created in the background so startup does not wait on Mongo
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        Flux.fromIterable(INDEXED_DOCUMENTS)
+                .flatMap(document -> {
+                    ReactiveIndexOperations indexOps = reactiveMongoTemplate.indexOps(document);
+                    return Flux.fromIterable(resolver.resolveIndexFor(document)).flatMap(indexOps::ensureIndex);
+                })
+                .subscribe(
+                        index -> log.info("Ensured Mongo index {}", index),
+                        e -> log.error("Failed to create Mongo indexes", e));
+    }
+
+    // Replaced by outbox_pending_idx; the old index covered every activity ever written
+    @EventListener(ApplicationReadyEvent.class)
+    public void dropLegacyIndexes() {
+        reactiveMongoTemplate.indexOps(Activity.class).getIndexInfo()
+                .filter(index -> LEGACY_OUTBOX_INDEX.equals(index.getName()))
+                .flatMap(index -> reactiveMongoTemplate.indexOps(Activity.class).dropIndex(index.getName())
+                        .thenReturn(index.getName()))
+                .subscribe(
+                        name -> log.info("Dropped legacy Mongo index {}", name),
+                        e -> log.warn("Failed to drop legacy Mongo index {}", LEGACY_OUTBOX_INDEX, e));
+    }
 }
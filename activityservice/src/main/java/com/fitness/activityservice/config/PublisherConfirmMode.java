@@ -0,0 +1,24 @@
+package com.fitness.activityservice.config;
+
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+
+/**
+ * How the activity publisher waits for broker confirms. Each mode needs the connection factory in
+ * the matching {@code spring.rabbitmq.publisher-confirm-type}, which is checked on startup.
+ */
+public enum PublisherConfirmMode {
+    // Each relay batch waits for its confirms before the next one is sent
+    SIMPLE(CachingConnectionFactory.ConfirmType.SIMPLE),
+    // Confirms are tracked per message by correlation id while publishing continues
+    ASYNC(CachingConnectionFactory.ConfirmType.CORRELATED);
+
+    private final CachingConnectionFactory.ConfirmType confirmType;
+
+    PublisherConfirmMode(CachingConnectionFactory.ConfirmType confirmType) {
+        this.confirmType = confirmType;
+    }
+
+    public CachingConnectionFactory.ConfirmType confirmType() {
+        return confirmType;
+    }
+}
@@ -1,9 +1,13 @@
 package com.fitness.activityservice.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.activityservice.event.ActivityEventMessageConverter;
+import com.fitness.activityservice.event.EventFormat;
 import org.springframework.amqp.core.Binding; // Correct Import
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;   // Correct Import
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,6 +24,12 @@ public class RabbitMqConfig {
     @Value("${rabbitmq.routingkey.activity}")
     private String routingKey;
 
+    @Value("${rabbitmq.queue.bulk-name:activity.bulk.queue}")
+    private String bulkQueue;
+
+    @Value("${rabbitmq.routingkey.activity-bulk:activity.created.bulk}")
+    private String bulkRoutingKey;
+
     @Bean
     public Queue activityQueue() {
         // Now this works because it refers to the Spring AMQP Queue class
@@ -35,4 +45,22 @@ public class RabbitMqConfig {
     public Binding activityBinding(Queue activityQueue, DirectExchange activityExchange) {
         return BindingBuilder.bind(activityQueue).to(activityExchange).with(routingKey);
     }
+
+    // Batch uploads and backfills, consumed separately from activityQueue
+    @Bean
+    public Queue activityBulkQueue() {
+        return new Queue(bulkQueue, true);
+    }
+
+    @Bean
+    public Binding activityBulkBinding(Queue activityBulkQueue, DirectExchange activityExchange) {
+        return BindingBuilder.bind(activityBulkQueue).to(activityExchange).with(bulkRoutingKey);
+    }
+
+    // Picked up by the auto-configured RabbitTemplate
+    @Bean
+    public MessageConverter activityEventMessageConverter(ObjectMapper objectMapper,
+                                                         @Value("${rabbitmq.event.format:BINARY}") EventFormat format) {
+        return new ActivityEventMessageConverter(objectMapper, format);
+    }
 }
\ No newline at end of file
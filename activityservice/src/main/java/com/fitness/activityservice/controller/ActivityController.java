@@ -1,27 +1,104 @@
 package com.fitness.activityservice.controller;
 
+import com.fitness.activityservice.dto.ActivityBatchResponse;
+import com.fitness.activityservice.dto.ActivityPage;
 import com.fitness.activityservice.dto.ActivityRequest;
 import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.dto.ActivityStatsResponse;
+import com.fitness.activityservice.model.RollupPeriod;
+import com.fitness.activityservice.service.ActivityRollupService;
 import com.fitness.activityservice.service.ActivityService;
+import com.fitness.activityservice.service.GatewayIdentityVerifier;
 
-import lombok.AllArgsConstructor;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/activities")
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class ActivityController {
 
     private final ActivityService activityService;
+    private final ActivityRollupService activityRollupService;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    // Only the export runs this long; other async requests keep the default timeout
+    @Value("${activity.export.timeout:30m}")
+    private Duration exportTimeout;
 
     @PostMapping
-    public ResponseEntity<ActivityResponse> trackActivity(@RequestBody ActivityRequest request) {
-        return ResponseEntity.ok(activityService.trackActivity(request));
+    public ResponseEntity<ActivityResponse> trackActivity(
+            @RequestBody ActivityRequest request,
+            @RequestHeader(value = GatewayIdentityVerifier.USER_ID_HEADER, required = false) String userId,
+            @RequestHeader(value = GatewayIdentityVerifier.TIMESTAMP_HEADER, required = false) String timestamp,
+            @RequestHeader(value = GatewayIdentityVerifier.SIGNATURE_HEADER, required = false) String signature) {
+        String verifiedUserId = gatewayIdentityVerifier.verifiedUserId(userId, timestamp, signature);
+        return ResponseEntity.ok(activityService.trackActivity(request, verifiedUserId));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ActivityBatchResponse> trackActivities(
+            @RequestBody List<ActivityRequest> requests,
+            @RequestHeader(value = GatewayIdentityVerifier.USER_ID_HEADER, required = false) String userId,
+            @RequestHeader(value = GatewayIdentityVerifier.TIMESTAMP_HEADER, required = false) String timestamp,
+            @RequestHeader(value = GatewayIdentityVerifier.SIGNATURE_HEADER, required = false) String signature) {
+        String verifiedUserId = gatewayIdentityVerifier.verifiedUserId(userId, timestamp, signature);
+        return ResponseEntity.ok(activityService.trackActivities(requests, verifiedUserId));
     }
 
     @GetMapping("/{activityId}")
-    public ResponseEntity<ActivityResponse> getActivity(@PathVariable String activityId) {
-        return ResponseEntity.ok(activityService.getActivityById(activityId));
+    public ResponseEntity<ActivityResponse> getActivity(@PathVariable String activityId,
+                                                        @RequestParam(defaultValue = "false") boolean samples) {
+        return ResponseEntity.ok(activityService.getActivityById(activityId, samples));
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<ActivityPage> getUserActivities(@PathVariable String userId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(activityService.getUserActivities(userId, cursor, size));
+    }
+
+    // Written straight to the response from an async task so the timeout applies to this request alone
+    @GetMapping("/user/{userId}/export")
+    public WebAsyncTask<Void> exportUserActivities(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"activities-" + userId + ".ndjson\"");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            activityService.exportUserActivities(userId, from, to, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<ActivityStatsResponse> getUserStats(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "DAY") RollupPeriod period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(activityRollupService.getStats(userId, period, from, to));
+    }
+
+    // Backfills rollups from stored activities; omit userId to rebuild every user.
+    // Operator-only: the gateway does not route it (gateway.internal-paths)
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<Long> rebuildStats(@RequestParam(required = false) String userId) {
+        return ResponseEntity.ok(activityRollupService.rebuild(userId));
     }
-}
\ No newline at end of file
+}
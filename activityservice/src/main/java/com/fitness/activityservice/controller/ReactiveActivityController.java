@@ -0,0 +1,36 @@
+package com.fitness.activityservice.controller;
+
+import com.fitness.activityservice.dto.ActivityRequest;
+import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.service.GatewayIdentityVerifier;
+import com.fitness.activityservice.service.ReactiveActivityService;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+// Non-blocking variant of ActivityController: the servlet thread is released
+// as soon as the Mono is returned and the response is written on completion.
+@RestController
+@RequestMapping("/api/activities/reactive")
+@AllArgsConstructor
+public class ReactiveActivityController {
+
+    private final ReactiveActivityService reactiveActivityService;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+
+    @PostMapping
+    public Mono<ActivityResponse> trackActivity(
+            @RequestBody ActivityRequest request,
+            @RequestHeader(value = GatewayIdentityVerifier.USER_ID_HEADER, required = false) String userId,
+            @RequestHeader(value = GatewayIdentityVerifier.TIMESTAMP_HEADER, required = false) String timestamp,
+            @RequestHeader(value = GatewayIdentityVerifier.SIGNATURE_HEADER, required = false) String signature) {
+        String verifiedUserId = gatewayIdentityVerifier.verifiedUserId(userId, timestamp, signature);
+        return reactiveActivityService.trackActivity(request, verifiedUserId);
+    }
+
+    @GetMapping("/{activityId}")
+    public Mono<ActivityResponse> getActivity(@PathVariable String activityId,
+                                              @RequestParam(defaultValue = "false") boolean samples) {
+        return reactiveActivityService.getActivityById(activityId, samples);
+    }
+}
@@ -0,0 +1,25 @@
+package com.fitness.activityservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityBatchResult {
+
+    // Position of the item in the submitted batch
+    private int index;
+    private boolean success;
+    private ActivityResponse activity;
+    private String error;
+
+    public static ActivityBatchResult success(int index, ActivityResponse activity) {
+        return new ActivityBatchResult(index, true, activity, null);
+    }
+
+    public static ActivityBatchResult failure(int index, String error) {
+        return new ActivityBatchResult(index, false, null, error);
+    }
+}
@@ -14,4 +14,7 @@ public class ActivityRequest {
     private Integer caloriesBurned;
     private LocalDateTime startTime;
     private Map<String , Object> additionalMetrics;
+    // Per-metric samples taken every sampleIntervalSeconds (defaults to 1)
+    private Map<String, int[]> samples;
+    private Integer sampleIntervalSeconds;
 }
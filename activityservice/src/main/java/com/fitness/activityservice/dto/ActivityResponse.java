@@ -17,6 +17,7 @@ public class ActivityResponse {
     private LocalDateTime startTime;
 
     private Map<String , Object> additionalMetrics;
+    private Map<String, SampleSeriesResponse> samples;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
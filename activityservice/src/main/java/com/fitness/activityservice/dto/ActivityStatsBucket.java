@@ -0,0 +1,15 @@
+package com.fitness.activityservice.dto;
+
+import com.fitness.activityservice.model.ActivityType;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ActivityStatsBucket {
+    private LocalDate bucketStart;
+    private ActivityType type;
+    private long count;
+    private long totalDuration;
+    private long totalCalories;
+}
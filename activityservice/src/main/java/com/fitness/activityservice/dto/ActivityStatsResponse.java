@@ -0,0 +1,17 @@
+package com.fitness.activityservice.dto;
+
+import com.fitness.activityservice.model.RollupPeriod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityStatsResponse {
+    private String userId;
+    private RollupPeriod period;
+    private List<ActivityStatsBucket> buckets;
+}
@@ -0,0 +1,16 @@
+package com.fitness.activityservice.dto;
+
+import com.fitness.activityservice.model.ActivityType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// List-view projection of an activity; metrics are only returned by the detail endpoint
+@Data
+public class ActivitySummary {
+    private String id;
+    private ActivityType type;
+    private Integer duration;
+    private Integer caloriesBurned;
+    private LocalDateTime startTime;
+}
@@ -0,0 +1,18 @@
+package com.fitness.activityservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+@Data
+public class SampleSeriesResponse {
+    private int count;
+    private int intervalSeconds;
+    private int min;
+    private int max;
+    private double avg;
+    private int[] zoneBounds;
+    private int[] zoneSeconds;
+    // Only filled when the caller asks for the raw samples
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private int[] values;
+}
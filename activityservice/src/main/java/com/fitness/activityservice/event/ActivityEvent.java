@@ -0,0 +1,73 @@
+package com.fitness.activityservice.event;
+
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.SampleSeries;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Version 1 of the activity event published to {@code activity.exchange}.
+ * The aiservice mirrors this shape in {@code com.fitness.aiservice.model.Activity};
+ * any change here needs a new {@link ActivityEventCodec#SCHEMA_VERSION} there too.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityEvent {
+    private String id;
+    private String userId;
+    private String type;
+    private Integer duration;
+    private Integer caloriesBurned;
+    private LocalDateTime startTime;
+    private LocalDateTime createdAt;
+    private Map<String, Object> additionalMetrics;
+
+    public static ActivityEvent from(Activity activity) {
+        return ActivityEvent.builder()
+                .id(activity.getId())
+                .userId(activity.getUserId())
+                .type(activity.getType() != null ? activity.getType().name() : null)
+                .duration(activity.getDuration())
+                .caloriesBurned(activity.getCaloriesBurned())
+                .startTime(activity.getStartTime())
+                .createdAt(activity.getCreatedAt())
+                .additionalMetrics(withSampleSummaries(activity))
+                .build();
+    }
+
+    // Raw samples stay in the activityservice; consumers get their summaries as a metric
+    private static Map<String, Object> withSampleSummaries(Activity activity) {
+        if (activity.getSamples() == null || activity.getSamples().isEmpty()) {
+            return activity.getAdditionalMetrics();
+        }
+        Map<String, Object> metrics = activity.getAdditionalMetrics() != null
+                ? new LinkedHashMap<>(activity.getAdditionalMetrics())
+                : new LinkedHashMap<>();
+        Map<String, Object> summaries = new LinkedHashMap<>();
+        activity.getSamples().forEach((metric, series) -> summaries.put(metric, summaryOf(series)));
+        metrics.put("sampleSummaries", summaries);
+        return metrics;
+    }
+
+    private static Map<String, Object> summaryOf(SampleSeries series) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", series.getCount());
+        summary.put("intervalSeconds", series.getIntervalSeconds());
+        summary.put("min", series.getMin());
+        summary.put("max", series.getMax());
+        summary.put("avg", series.getAvg());
+        if (series.getZoneSeconds() != null) {
+            summary.put("zoneSeconds", Arrays.stream(series.getZoneSeconds()).boxed().toList());
+        }
+        return summary;
+    }
+}
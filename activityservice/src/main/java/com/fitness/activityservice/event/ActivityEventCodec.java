@@ -0,0 +1,296 @@
+package com.fitness.activityservice.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of {@link ActivityEvent}. The aiservice holds a byte-for-byte copy of
+ * this class; keep both in sync and bump {@link #SCHEMA_VERSION} for any layout change. The
+ * ActivityEventCodecTests of both services pin the same golden payload to catch drift.
+ *
+ * <pre>
+ * event    := version:u8 presence:varint field*      (fields in declaration order, only if present)
+ * string   := length:varint utf8-bytes
+ * int      := zigzag-varint
+ * datetime := epochSecondUtc:zigzag-varint nanos:varint
+ * metrics  := count:varint (key:string value)*
+ * value    := tag:u8 payload                          (see TAG_* constants)
+ * </pre>
+ */
+public final class ActivityEventCodec {
+
+    public static final int SCHEMA_VERSION = 1;
+    public static final String CONTENT_TYPE = "application/x-activity-event";
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_USER_ID = 1 << 1;
+    private static final int HAS_TYPE = 1 << 2;
+    private static final int HAS_DURATION = 1 << 3;
+    private static final int HAS_CALORIES = 1 << 4;
+    private static final int HAS_START_TIME = 1 << 5;
+    private static final int HAS_CREATED_AT = 1 << 6;
+    private static final int HAS_METRICS = 1 << 7;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INTEGER = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_STRING = 5;
+    private static final int TAG_LIST = 6;
+    private static final int TAG_MAP = 7;
+
+    private ActivityEventCodec() {
+    }
+
+    public static byte[] encode(ActivityEvent event) {
+        Writer out = new Writer();
+        out.writeByte(SCHEMA_VERSION);
+
+        int presence = (event.getId() != null ? HAS_ID : 0)
+                | (event.getUserId() != null ? HAS_USER_ID : 0)
+                | (event.getType() != null ? HAS_TYPE : 0)
+                | (event.getDuration() != null ? HAS_DURATION : 0)
+                | (event.getCaloriesBurned() != null ? HAS_CALORIES : 0)
+                | (event.getStartTime() != null ? HAS_START_TIME : 0)
+                | (event.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+                | (event.getAdditionalMetrics() != null ? HAS_METRICS : 0);
+        out.writeVarLong(presence);
+
+        if (event.getId() != null) out.writeString(event.getId());
+        if (event.getUserId() != null) out.writeString(event.getUserId());
+        if (event.getType() != null) out.writeString(event.getType());
+        if (event.getDuration() != null) out.writeZigZag(event.getDuration());
+        if (event.getCaloriesBurned() != null) out.writeZigZag(event.getCaloriesBurned());
+        if (event.getStartTime() != null) out.writeDateTime(event.getStartTime());
+        if (event.getCreatedAt() != null) out.writeDateTime(event.getCreatedAt());
+        if (event.getAdditionalMetrics() != null) out.writeMap(event.getAdditionalMetrics());
+
+        return out.toByteArray();
+    }
+
+    public static ActivityEvent decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        int version = in.readByte();
+        if (version != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported activity event schema version: " + version);
+        }
+
+        long presence = in.readVarLong();
+        ActivityEvent event = new ActivityEvent();
+        if ((presence & HAS_ID) != 0) event.setId(in.readString());
+        if ((presence & HAS_USER_ID) != 0) event.setUserId(in.readString());
+        if ((presence & HAS_TYPE) != 0) event.setType(in.readString());
+        if ((presence & HAS_DURATION) != 0) event.setDuration((int) in.readZigZag());
+        if ((presence & HAS_CALORIES) != 0) event.setCaloriesBurned((int) in.readZigZag());
+        if ((presence & HAS_START_TIME) != 0) event.setStartTime(in.readDateTime());
+        if ((presence & HAS_CREATED_AT) != 0) event.setCreatedAt(in.readDateTime());
+        if ((presence & HAS_METRICS) != 0) event.setAdditionalMetrics(in.readMap());
+        return event;
+    }
+
+    // Unsynchronized growable buffer; ByteArrayOutputStream locks on every byte
+    private static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int size;
+
+        private void write(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        private void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        void writeByte(int value) {
+            write(value);
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            write(utf8);
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeZigZag(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarLong(value.getNano());
+        }
+
+        void writeMap(Map<?, ?> map) {
+            writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue());
+            }
+        }
+
+        void writeValue(Object value) {
+            if (value == null) {
+                writeByte(TAG_NULL);
+            } else if (value instanceof Boolean flag) {
+                writeByte(flag ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte) {
+                writeByte(TAG_INTEGER);
+                writeZigZag(((Number) value).longValue());
+            } else if (value instanceof Number number) {
+                writeByte(TAG_DOUBLE);
+                long bits = Double.doubleToRawLongBits(number.doubleValue());
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (bits >>> shift));
+                }
+            } else if (value instanceof Map<?, ?> nested) {
+                writeByte(TAG_MAP);
+                writeMap(nested);
+            } else if (value instanceof List<?> list) {
+                writeByte(TAG_LIST);
+                writeVarLong(list.size());
+                list.forEach(this::writeValue);
+            } else {
+                writeByte(TAG_STRING);
+                writeString(value.toString());
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated activity event");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in activity event");
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated activity event");
+            }
+            String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            long epochSecond = readZigZag();
+            int nanos = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+
+        // Every entry takes at least minEntryBytes, so a count the remaining input cannot hold is
+        // rejected before anything is allocated for it
+        int readCount(int minEntryBytes) {
+            long count = readVarLong();
+            if (count < 0 || count > (bytes.length - position) / minEntryBytes) {
+                throw new IllegalArgumentException("Invalid collection size in activity event: " + count);
+            }
+            return (int) count;
+        }
+
+        Map<String, Object> readMap() {
+            // A key length byte and a value tag per entry
+            int size = readCount(2);
+            Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), readValue());
+            }
+            return map;
+        }
+
+        Object readValue() {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_INTEGER: {
+                    long value = readZigZag();
+                    // Same narrowing Jackson applies, so both formats yield the same types
+                    return value == (int) value ? (Object) (int) value : (Object) value;
+                }
+                case TAG_DOUBLE: {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    return Double.longBitsToDouble(bits);
+                }
+                case TAG_STRING:
+                    return readString();
+                case TAG_LIST: {
+                    int size = readCount(1);
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case TAG_MAP:
+                    return readMap();
+                default:
+                    throw new IllegalArgumentException("Unknown value tag in activity event: " + tag);
+            }
+        }
+    }
+}
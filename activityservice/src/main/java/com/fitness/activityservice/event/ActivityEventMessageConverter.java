@@ -0,0 +1,59 @@
+package com.fitness.activityservice.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ActivityEvent}s in the configured {@link EventFormat} and reads either format
+ * back based on the message content type. The schema version travels in a header as well as in
+ * the binary payload so consumers can route or reject messages without decoding them.
+ */
+public class ActivityEventMessageConverter implements MessageConverter {
+
+    public static final String SCHEMA_VERSION_HEADER = "x-event-schema-version";
+
+    private final ObjectMapper objectMapper;
+    private final EventFormat format;
+
+    public ActivityEventMessageConverter(ObjectMapper objectMapper, EventFormat format) {
+        this.objectMapper = objectMapper;
+        this.format = format;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof ActivityEvent event)) {
+            throw new MessageConversionException("Unsupported payload type: " + object.getClass().getName());
+        }
+        messageProperties.setHeader(SCHEMA_VERSION_HEADER, ActivityEventCodec.SCHEMA_VERSION);
+        if (format == EventFormat.BINARY) {
+            messageProperties.setContentType(ActivityEventCodec.CONTENT_TYPE);
+            return new Message(ActivityEventCodec.encode(event), messageProperties);
+        }
+        try {
+            messageProperties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+            messageProperties.setContentEncoding("UTF-8");
+            return new Message(objectMapper.writeValueAsBytes(event), messageProperties);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to write activity event as JSON", e);
+        }
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        try {
+            if (ActivityEventCodec.CONTENT_TYPE.equals(contentType)) {
+                return ActivityEventCodec.decode(message.getBody());
+            }
+            return objectMapper.readValue(message.getBody(), ActivityEvent.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MessageConversionException("Failed to read activity event of type " + contentType, e);
+        }
+    }
+}
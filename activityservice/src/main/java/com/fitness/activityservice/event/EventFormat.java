@@ -0,0 +1,8 @@
+package com.fitness.activityservice.event;
+
+public enum EventFormat {
+    // Compact varint / length-prefixed encoding from ActivityEventCodec
+    BINARY,
+    // Plain JSON, readable in the RabbitMQ management UI for debugging
+    JSON
+}
@@ -7,13 +7,21 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 
-@Document(collation = "activities")
+// Existing data lives in "activity", the name derived from the class before the collection was set
+@Document(collection = "activity")
+// Serves per-user history pages ordered by (startTime, id) without a sort stage
+@CompoundIndex(name = "user_start_time_idx", def = "{'userId': 1, 'startTime': -1, '_id': -1}")
+// Outbox relay: only PENDING activities are indexed, so the index stays as small as the backlog,
+// and the relay's per-lane query sorted by _id is served from it
+@CompoundIndex(name = "outbox_pending_idx", def = "{'lane': 1, '_id': 1}",
+        partialFilter = "{'outboxStatus': 'PENDING'}")
 @Data
 @Builder
 @AllArgsConstructor
@@ -31,11 +39,20 @@ public class Activity {
     @Field("metrics")
     private Map<String, Object> additionalMetrics;
 
+    // High-frequency per-metric samples, keyed by metric name (e.g. "heartRate")
+    private Map<String, SampleSeries> samples;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Outbox state: written together with the activity, cleared by ActivityOutboxRelay
+    private OutboxStatus outboxStatus;
+    private LocalDateTime publishedAt;
+    // Routing lane for the event; absent on activities stored before lanes existed (interactive)
+    private ActivityLane lane;
+
 
 }
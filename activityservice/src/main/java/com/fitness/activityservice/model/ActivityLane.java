@@ -0,0 +1,7 @@
+package com.fitness.activityservice.model;
+
+// Priority lane an activity event is published on; BULK covers batch uploads and backfills
+public enum ActivityLane {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,35 @@
+package com.fitness.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+// Pre-aggregated totals for one user, period bucket and activity type
+@Document(collection = "activity_rollups")
+@CompoundIndex(name = "user_period_bucket_idx", def = "{'userId': 1, 'period': 1, 'bucketStart': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ActivityRollup {
+    // userId:period:bucketStart:type, so concurrent upserts of the same bucket hit one document
+    @Id
+    private String id;
+    private String userId;
+    private RollupPeriod period;
+    private LocalDate bucketStart;
+    private ActivityType type;
+    private long count;
+    private long totalDuration;
+    private long totalCalories;
+
+    public static String idOf(String userId, RollupPeriod period, LocalDate bucketStart, ActivityType type) {
+        return userId + ":" + period + ":" + bucketStart + ":" + type;
+    }
+}
@@ -0,0 +1,6 @@
+package com.fitness.activityservice.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT
+}
@@ -0,0 +1,15 @@
+package com.fitness.activityservice.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RollupPeriod {
+    DAY,
+    WEEK;
+
+    // First day of the bucket containing the date; weeks are ISO weeks starting on Monday
+    public LocalDate bucketStart(LocalDate date) {
+        return this == DAY ? date : date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,94 @@
+package com.fitness.activityservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-interval series of integer samples (heart rate, pace, cadence, ...) stored as
+ * zigzag varint deltas in a single binary field instead of one BSON element per sample.
+ * Summary statistics are computed once at ingest so readers rarely need to decode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleSeries {
+
+    private int count;
+    private int intervalSeconds;
+    private byte[] data;
+    private int min;
+    private int max;
+    private double avg;
+    // Seconds spent in each zone: below zoneBounds[0], [zoneBounds[0], zoneBounds[1]), ..., above the last bound
+    private int[] zoneBounds;
+    private int[] zoneSeconds;
+
+    public static SampleSeries of(int[] values, int intervalSeconds, int[] zoneBounds) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("Sample series must not be empty");
+        }
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + intervalSeconds);
+        }
+
+        byte[] buffer = new byte[values.length * 5];
+        int size = 0;
+        int previous = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        long sum = 0;
+        int[] zoneSeconds = zoneBounds != null ? new int[zoneBounds.length + 1] : null;
+
+        for (int value : values) {
+            int delta = value - previous;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+            previous = value;
+
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            if (zoneSeconds != null) {
+                zoneSeconds[zoneOf(value, zoneBounds)] += intervalSeconds;
+            }
+        }
+
+        return new SampleSeries(values.length, intervalSeconds, Arrays.copyOf(buffer, size),
+                min, max, (double) sum / values.length, zoneBounds, zoneSeconds);
+    }
+
+    // Decodes the samples into a primitive array; nothing is boxed
+    public int[] values() {
+        int[] values = new int[count];
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static int zoneOf(int value, int[] zoneBounds) {
+        int zone = 0;
+        while (zone < zoneBounds.length && value >= zoneBounds[zone]) {
+            zone++;
+        }
+        return zone;
+    }
+}
@@ -0,0 +1,23 @@
+package com.fitness.activityservice.repository;
+
+import com.fitness.activityservice.model.Activity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ActivityHistoryRepository {
+
+    /**
+     * Returns up to {@code limit} of the user's activities ordered by {@code (startTime desc, id desc)},
+     * starting strictly after the given position. Pass a null {@code afterId} for the first page.
+     * Only the list-view fields are loaded.
+     */
+    List<Activity> findHistoryPage(String userId, LocalDateTime afterStartTime, String afterId, int limit);
+
+    /**
+     * Streams the user's activities in {@code startTime} order straight off a Mongo cursor,
+     * optionally limited to {@code [from, to)}. The stream must be closed to release the cursor.
+     */
+    Stream<Activity> streamHistory(String userId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,68 @@
+package com.fitness.activityservice.repository;
+
+import com.fitness.activityservice.model.Activity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+class ActivityHistoryRepositoryImpl implements ActivityHistoryRepository {
+
+    // Documents per cursor round trip; bounds what an export holds in memory at once
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Activity> findHistoryPage(String userId, LocalDateTime afterStartTime, String afterId, int limit) {
+        Criteria criteria = where("userId").is(userId);
+        if (afterId != null) {
+            // Seek past the cursor instead of skipping, so deep pages cost the same as the first.
+            // Activities without a startTime sort last in descending order.
+            if (afterStartTime == null) {
+                criteria.and("startTime").is(null).and("_id").lt(afterId);
+            } else {
+                criteria.orOperator(
+                        where("startTime").lt(afterStartTime),
+                        where("startTime").is(afterStartTime).and("_id").lt(afterId),
+                        where("startTime").is(null));
+            }
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "startTime", "_id"))
+                .limit(limit);
+        query.fields().include("type", "duration", "caloriesBurned", "startTime");
+
+        return mongoTemplate.find(query, Activity.class);
+    }
+
+    @Override
+    public Stream<Activity> streamHistory(String userId, LocalDateTime from, LocalDateTime to) {
+        Criteria criteria = where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria startTime = criteria.and("startTime");
+            if (from != null) {
+                startTime.gte(from);
+            }
+            if (to != null) {
+                startTime.lt(to);
+            }
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "startTime", "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().exclude("outboxStatus", "publishedAt", "lane");
+
+        return mongoTemplate.stream(query, Activity.class);
+    }
+}
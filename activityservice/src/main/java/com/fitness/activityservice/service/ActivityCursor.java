@@ -0,0 +1,37 @@
+package com.fitness.activityservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last activity on a page, ordered by {@code (startTime desc, id desc)}.
+ * Encoded as URL-safe base64 so clients treat it as opaque.
+ */
+record ActivityCursor(LocalDateTime startTime, String id) {
+
+    private static final String SEPARATOR = "|";
+    private static final String NO_START_TIME = "-";
+
+    String encode() {
+        String raw = (startTime == null ? NO_START_TIME : startTime.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ActivityCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            String startTime = raw.substring(0, separator);
+            return new ActivityCursor(
+                    NO_START_TIME.equals(startTime) ? null : LocalDateTime.parse(startTime),
+                    raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            // A cursor is client input, so a malformed one is a bad request rather than a server error
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.fitness.activityservice.service;
+
+import com.fitness.activityservice.config.PublisherConfirmMode;
+import com.fitness.activityservice.event.ActivityEvent;
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Publishes activity events with publisher confirms, in the mode selected by
+ * {@code rabbitmq.publisher.confirm-mode} (see {@link PublisherConfirmMode}).
+ *
+ * <p>In {@code ASYNC} mode every message carries a {@link CorrelationData} and the caller gets a
+ * future instead of waiting for the broker. Unconfirmed messages are capped by a semaphore so a
+ * slow broker pushes back on the relay, and nacked or timed-out messages are re-sent with backoff.
+ * Retries run on a dedicated scheduler thread that never waits for a permit: a retry that finds no
+ * free slot is rescheduled until {@code rabbitmq.publisher.backpressure-timeout} has passed.
+ */
+@Component
+@Slf4j
+public class ActivityEventPublisher {
+
+    // How often a retry checks for a free in-flight slot
+    private static final long PERMIT_POLL_INTERVAL_MS = 50;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final PublisherConfirmMode confirmMode;
+
+    @Value("${rabbitmq.exchange.name}")
+    private String exchange;
+
+    @Value("${rabbitmq.routingkey.activity}")
+    private String routingKey;
+
+    @Value("${rabbitmq.routingkey.activity-bulk:activity.created.bulk}")
+    private String bulkRoutingKey;
+
+    @Value("${activity.outbox.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    @Value("${rabbitmq.publisher.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${rabbitmq.publisher.retry-backoff:200}")
+    private long retryBackoff;
+
+    @Value("${rabbitmq.publisher.backpressure-timeout:10000}")
+    private long backpressureTimeout;
+
+    private final Semaphore unconfirmedPermits;
+    // Activities handed to the broker whose outcome is not known yet, including pending retries
+    private final Set<String> inFlightActivities = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "activity-publisher-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer confirmLatency;
+    private final Counter nacks;
+    private final Counter confirmTimeouts;
+    private final Counter retries;
+
+    public ActivityEventPublisher(RabbitTemplate rabbitTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${rabbitmq.publisher.confirm-mode:SIMPLE}") PublisherConfirmMode confirmMode,
+                                  @Value("${rabbitmq.publisher.max-in-flight:1000}") int maxInFlight) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.confirmMode = confirmMode;
+        checkConfirmType(rabbitTemplate.getConnectionFactory(), confirmMode);
+        this.unconfirmedPermits = new Semaphore(maxInFlight);
+
+        this.confirmLatency = Timer.builder("activity.publisher.confirm.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.nacks = meterRegistry.counter("activity.publisher.nacks");
+        this.confirmTimeouts = meterRegistry.counter("activity.publisher.confirm-timeouts");
+        this.retries = meterRegistry.counter("activity.publisher.retries");
+        meterRegistry.gauge("activity.publisher.in-flight", inFlightActivities, Set::size);
+    }
+
+    /**
+     * Publishes the batch and hands the ids the broker confirmed to {@code onConfirmed}. Ids left
+     * out were not confirmed and must stay pending. The batch counts as in flight until
+     * {@code onConfirmed} has run. In {@code SIMPLE} mode everything happens before this returns
+     * and the future fails as a whole if any message was not confirmed.
+     */
+    public CompletableFuture<Void> publishBatch(List<Activity> activities, Consumer<List<String>> onConfirmed) {
+        if (confirmMode == PublisherConfirmMode.SIMPLE) {
+            return publishBatchAndWait(activities).thenAccept(onConfirmed);
+        }
+
+        List<String> batchIds = activities.stream().map(Activity::getId).toList();
+        inFlightActivities.addAll(batchIds);
+
+        List<CompletableFuture<String>> confirmations = activities.stream()
+                .map(activity -> send(activity, 0).thenApply(acked -> acked ? activity.getId() : null))
+                .toList();
+
+        return CompletableFuture.allOf(confirmations.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> confirmations.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .thenAccept(onConfirmed)
+                .whenComplete((ignored, e) -> batchIds.forEach(inFlightActivities::remove));
+    }
+
+    public Set<String> inFlightActivityIds() {
+        return Set.copyOf(inFlightActivities);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    private static void checkConfirmType(ConnectionFactory connectionFactory, PublisherConfirmMode confirmMode) {
+        boolean matches = confirmMode == PublisherConfirmMode.SIMPLE
+                ? connectionFactory.isSimplePublisherConfirms()
+                : connectionFactory.isPublisherConfirms();
+        if (!matches) {
+            throw new IllegalStateException("rabbitmq.publisher.confirm-mode " + confirmMode
+                    + " requires spring.rabbitmq.publisher-confirm-type: "
+                    + confirmMode.confirmType().name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private CompletableFuture<List<String>> publishBatchAndWait(List<Activity> activities) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                activities.forEach(activity -> operations.convertAndSend(exchange, routingKeyFor(activity), ActivityEvent.from(activity)));
+                operations.waitForConfirmsOrDie(confirmTimeout);
+                return null;
+            });
+            return CompletableFuture.completedFuture(activities.stream().map(Activity::getId).toList());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Boolean> send(Activity activity, int attempt) {
+        try {
+            // Backpressure: the relay thread blocks while too many messages are unconfirmed
+            if (!unconfirmedPermits.tryAcquire(backpressureTimeout, TimeUnit.MILLISECONDS)) {
+                log.warn("Too many unconfirmed activity events, deferring {}", activity.getId());
+                return CompletableFuture.completedFuture(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return publish(activity, attempt);
+    }
+
+    // Called with an in-flight permit held; the permit is released once the broker has answered
+    private CompletableFuture<Boolean> publish(Activity activity, int attempt) {
+        CorrelationData correlation = new CorrelationData(activity.getId() + ":" + attempt);
+        long sentAt = System.nanoTime();
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKeyFor(activity), ActivityEvent.from(activity), correlation);
+        } catch (Exception e) {
+            correlation.getFuture().completeExceptionally(e);
+        }
+
+        // The permit is held until the broker answers, even after this attempt stopped waiting, so
+        // max-in-flight still counts messages whose confirm is late. The template completes pending
+        // confirms as nacks when a channel closes, so the permit is always returned.
+        correlation.getFuture().whenComplete((confirm, error) -> unconfirmedPermits.release());
+
+        return correlation.getFuture().copy()
+                .orTimeout(confirmTimeout, TimeUnit.MILLISECONDS)
+                .handle((confirm, error) -> {
+                    boolean acked = error == null && confirm.isAck();
+                    if (acked) {
+                        confirmLatency.record(System.nanoTime() - sentAt, TimeUnit.NANOSECONDS);
+                    } else if (unwrap(error) instanceof TimeoutException) {
+                        confirmTimeouts.increment();
+                        log.warn("Activity event {} not confirmed within {} ms (attempt {})",
+                                activity.getId(), confirmTimeout, attempt);
+                    } else {
+                        nacks.increment();
+                        log.warn("Activity event {} not confirmed (attempt {}): {}", activity.getId(), attempt,
+                                error != null ? error.toString() : confirm.getReason());
+                    }
+                    return acked;
+                })
+                .thenCompose(acked -> acked || attempt >= maxRetries
+                        ? CompletableFuture.completedFuture(acked)
+                        : retry(activity, attempt + 1));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    // Bulk activities go to their own queue so consumers can keep live work ahead of backfills
+    private String routingKeyFor(Activity activity) {
+        return activity.getLane() == ActivityLane.BULK ? bulkRoutingKey : routingKey;
+    }
+
+    private CompletableFuture<Boolean> retry(Activity activity, int attempt) {
+        retries.increment();
+        long delay = retryBackoff * (1L << (attempt - 1));
+        long jitter = ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay + jitter + backpressureTimeout);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        retryScheduler.schedule(() -> resend(activity, attempt, deadline, result), delay + jitter, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    // Runs on the retry scheduler, so it polls for a permit instead of blocking its only thread
+    private void resend(Activity activity, int attempt, long deadline, CompletableFuture<Boolean> result) {
+        if (unconfirmedPermits.tryAcquire()) {
+            publish(activity, attempt).whenComplete((acked, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(acked);
+                }
+            });
+        } else if (System.nanoTime() - deadline < 0) {
+            retryScheduler.schedule(() -> resend(activity, attempt, deadline, result),
+                    PERMIT_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } else {
+            log.warn("Too many unconfirmed activity events, deferring retry of {}", activity.getId());
+            result.complete(false);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.fitness.activityservice.service;
+
+import com.fitness.activityservice.dto.ActivityRequest;
+import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.dto.ActivitySummary;
+import com.fitness.activityservice.dto.SampleSeriesResponse;
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityLane;
+import com.fitness.activityservice.model.OutboxStatus;
+import com.fitness.activityservice.model.SampleSeries;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class ActivityMapper {
+
+    // Default heart-rate zone boundaries in bpm; other metrics get no zones
+    private static final Map<String, int[]> ZONE_BOUNDS = Map.of(
+            "heartRate", new int[]{100, 120, 140, 160, 180});
+
+    private ActivityMapper() {
+    }
+
+    static Activity toActivity(ActivityRequest activityRequest) {
+        return toActivity(activityRequest, ActivityLane.INTERACTIVE);
+    }
+
+    static Activity toActivity(ActivityRequest activityRequest, ActivityLane lane) {
+        return Activity.builder()
+                .userId(activityRequest.getUserId())
+                .type(activityRequest.getType())
+                .duration(activityRequest.getDuration())
+                .caloriesBurned(activityRequest.getCaloriesBurned())
+                .startTime(activityRequest.getStartTime())
+                .additionalMetrics(activityRequest.getAdditionalMetrics())
+                .samples(toSampleSeries(activityRequest))
+                .outboxStatus(OutboxStatus.PENDING)
+                .lane(lane)
+                .build();
+    }
+
+    static ActivityResponse toResponse(Activity activity) {
+        return toResponse(activity, false);
+    }
+
+    /**
+     * Sample series are returned as their summaries; the decoded values run to thousands of
+     * points per metric and are only included when {@code includeSampleValues} asks for them.
+     */
+    static ActivityResponse toResponse(Activity activity, boolean includeSampleValues) {
+        ActivityResponse response = new ActivityResponse();
+        response.setId(activity.getId());
+        response.setUserId(activity.getUserId());
+        response.setType(activity.getType());
+        response.setDuration(activity.getDuration());
+        response.setCaloriesBurned(activity.getCaloriesBurned());
+        response.setStartTime(activity.getStartTime());
+        response.setAdditionalMetrics(activity.getAdditionalMetrics());
+        if (activity.getSamples() != null) {
+            Map<String, SampleSeriesResponse> samples = new LinkedHashMap<>();
+            activity.getSamples().forEach((metric, series) -> samples.put(metric, toSampleResponse(series, includeSampleValues)));
+            response.setSamples(samples);
+        }
+        // Add any other fields as needed
+
+        return response;
+    }
+
+    static ActivitySummary toSummary(Activity activity) {
+        ActivitySummary summary = new ActivitySummary();
+        summary.setId(activity.getId());
+        summary.setType(activity.getType());
+        summary.setDuration(activity.getDuration());
+        summary.setCaloriesBurned(activity.getCaloriesBurned());
+        summary.setStartTime(activity.getStartTime());
+        return summary;
+    }
+
+    private static Map<String, SampleSeries> toSampleSeries(ActivityRequest activityRequest) {
+        if (activityRequest.getSamples() == null || activityRequest.getSamples().isEmpty()) {
+            return null;
+        }
+        int interval = activityRequest.getSampleIntervalSeconds() != null
+                ? activityRequest.getSampleIntervalSeconds()
+                : 1;
+        // Zone seconds are multiples of the interval, so zero or negative values would corrupt them
+        if (interval <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "sampleIntervalSeconds must be positive: " + interval);
+        }
+        Map<String, SampleSeries> samples = new LinkedHashMap<>();
+        activityRequest.getSamples().forEach((metric, values) -> {
+            if (values != null && values.length > 0) {
+                samples.put(metric, SampleSeries.of(values, interval, ZONE_BOUNDS.get(metric)));
+            }
+        });
+        return samples.isEmpty() ? null : samples;
+    }
+
+    private static SampleSeriesResponse toSampleResponse(SampleSeries series, boolean includeValues) {
+        SampleSeriesResponse response = new SampleSeriesResponse();
+        response.setCount(series.getCount());
+        response.setIntervalSeconds(series.getIntervalSeconds());
+        response.setMin(series.getMin());
+        response.setMax(series.getMax());
+        response.setAvg(series.getAvg());
+        response.setZoneBounds(series.getZoneBounds());
+        response.setZoneSeconds(series.getZoneSeconds());
+        if (includeValues) {
+            response.setValues(series.values());
+        }
+        return response;
+    }
+}
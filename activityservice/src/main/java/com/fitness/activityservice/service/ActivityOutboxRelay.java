@@ -0,0 +1,84 @@
+package com.fitness.activityservice.service;
+
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityLane;
+import com.fitness.activityservice.model.OutboxStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Drains activities still marked {@link OutboxStatus#PENDING} to RabbitMQ in batches.
+ * An activity is only marked {@link OutboxStatus#SENT} after the broker confirmed it,
+ * so a crash or broker outage leads to a re-send (at-least-once), never a loss.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityOutboxRelay {
+
+    private final MongoTemplate mongoTemplate;
+    private final ActivityEventPublisher activityEventPublisher;
+
+    @Value("${activity.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${activity.outbox.initial-delay:5000}",
+            fixedDelayString = "${activity.outbox.poll-interval:500}")
+    public void relayPendingEvents() {
+        // Interactive activities are drained first so a large backfill cannot hold them back
+        relay(where("lane").ne(ActivityLane.BULK));
+        relay(where("lane").is(ActivityLane.BULK));
+    }
+
+    private void relay(Criteria laneCriteria) {
+        List<Activity> pending;
+        do {
+            // Activities still awaiting an async confirm are skipped so they are not sent twice
+            Query query = new Query(where("outboxStatus").is(OutboxStatus.PENDING)
+                    .and("_id").nin(activityEventPublisher.inFlightActivityIds())
+                    .andOperator(laneCriteria))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(batchSize);
+            pending = mongoTemplate.find(query, Activity.class);
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            int batch = pending.size();
+            CompletableFuture<Void> relayed = activityEventPublisher.publishBatch(pending, this::markSent)
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            log.error("Failed to relay {} pending activities, will retry", batch, e);
+                        }
+                    });
+            // In SIMPLE mode a failed batch is known right away; stop until the next pass
+            if (relayed.isCompletedExceptionally()) {
+                return;
+            }
+        } while (pending.size() == batchSize);
+    }
+
+    private void markSent(List<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    new Query(where("_id").in(ids)),
+                    new Update().set("outboxStatus", OutboxStatus.SENT).set("publishedAt", LocalDateTime.now()),
+                    Activity.class);
+            log.info("Relayed {} activities to RabbitMQ", ids.size());
+        }
+    }
+}
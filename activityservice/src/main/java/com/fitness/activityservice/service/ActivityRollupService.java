@@ -0,0 +1,144 @@
+package com.fitness.activityservice.service;
+
+import com.fitness.activityservice.dto.ActivityStatsBucket;
+import com.fitness.activityservice.dto.ActivityStatsResponse;
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityRollup;
+import com.fitness.activityservice.model.RollupPeriod;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Maintains {@link ActivityRollup} documents per user, day / ISO week and activity type.
+ * Every persisted activity adds to its buckets with atomic {@code $inc} upserts, so stats
+ * reads touch one document per bucket instead of every activity.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRollupService {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    public void record(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityRollup.class);
+        for (Activity activity : activities) {
+            for (RollupPeriod period : RollupPeriod.values()) {
+                bulkOps.upsert(bucketQuery(activity, period), increment(activity, period));
+            }
+        }
+        bulkOps.execute();
+    }
+
+    public Mono<Void> recordReactive(Activity activity) {
+        return Flux.fromArray(RollupPeriod.values())
+                .flatMap(period -> reactiveMongoTemplate.upsert(
+                        bucketQuery(activity, period), increment(activity, period), ActivityRollup.class))
+                .then();
+    }
+
+    public ActivityStatsResponse getStats(String userId, RollupPeriod period, LocalDate from, LocalDate to) {
+        Query query = new Query(where("userId").is(userId).and("period").is(period)
+                .and("bucketStart").gte(period.bucketStart(from)).lte(to))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart", "type"));
+
+        List<ActivityStatsBucket> buckets = mongoTemplate.find(query, ActivityRollup.class).stream()
+                .map(this::toBucket)
+                .toList();
+        return new ActivityStatsResponse(userId, period, buckets);
+    }
+
+    /**
+     * Recomputes the rollups of one user, or of every user when {@code userId} is null, from the
+     * stored activities. Activities tracked while a rebuild is running may be counted twice, so
+     * run it while ingest for the affected users is quiet.
+     *
+     * @return the number of activities folded into the rebuilt rollups
+     */
+    public long rebuild(String userId) {
+        Query scope = userId == null ? new Query() : new Query(where("userId").is(userId));
+        mongoTemplate.remove(scope, ActivityRollup.class);
+
+        Query activities = Query.of(scope);
+        activities.fields().include("userId", "type", "duration", "caloriesBurned", "startTime", "createdAt");
+
+        long processed = 0;
+        List<Activity> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        try (Stream<Activity> stream = mongoTemplate.stream(activities, Activity.class)) {
+            Iterator<Activity> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                    record(chunk);
+                    processed += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        record(chunk);
+        processed += chunk.size();
+
+        log.info("Rebuilt activity rollups for {} from {} activities", userId == null ? "all users" : userId, processed);
+        return processed;
+    }
+
+    private Query bucketQuery(Activity activity, RollupPeriod period) {
+        LocalDate bucketStart = period.bucketStart(activityDate(activity));
+        return new Query(where("_id").is(ActivityRollup.idOf(activity.getUserId(), period, bucketStart, activity.getType())));
+    }
+
+    private Update increment(Activity activity, RollupPeriod period) {
+        return new Update()
+                .setOnInsert("userId", activity.getUserId())
+                .setOnInsert("period", period)
+                .setOnInsert("bucketStart", period.bucketStart(activityDate(activity)))
+                .setOnInsert("type", activity.getType())
+                .inc("count", 1)
+                .inc("totalDuration", activity.getDuration() == null ? 0 : activity.getDuration())
+                .inc("totalCalories", activity.getCaloriesBurned() == null ? 0 : activity.getCaloriesBurned());
+    }
+
+    private LocalDate activityDate(Activity activity) {
+        if (activity.getStartTime() != null) {
+            return activity.getStartTime().toLocalDate();
+        }
+        if (activity.getCreatedAt() != null) {
+            return activity.getCreatedAt().toLocalDate();
+        }
+        return LocalDateTime.now().toLocalDate();
+    }
+
+    private ActivityStatsBucket toBucket(ActivityRollup rollup) {
+        ActivityStatsBucket bucket = new ActivityStatsBucket();
+        bucket.setBucketStart(rollup.getBucketStart());
+        bucket.setType(rollup.getType());
+        bucket.setCount(rollup.getCount());
+        bucket.setTotalDuration(rollup.getTotalDuration());
+        bucket.setTotalCalories(rollup.getTotalCalories());
+        return bucket;
+    }
+}
@@ -1,83 +1,192 @@
 package com.fitness.activityservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fitness.activityservice.dto.ActivityBatchResponse;
+import com.fitness.activityservice.dto.ActivityBatchResult;
+import com.fitness.activityservice.dto.ActivityPage;
 import com.fitness.activityservice.dto.ActivityRequest;
 import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.dto.ActivitySummary;
 import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.ActivityLane;
 import com.fitness.activityservice.repository.ActivityRepository;
 import com.fitness.activityservice.service.UserValidationService; // Feign client or similar
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ActivityService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     private final ActivityRepository activityRepository;
     private final UserValidationService userValidationService;
-    private final RabbitTemplate rabbitTemplate;
-
-    @Value("${rabbitmq.exchange.name}")
-    private String exchange;
-
-    @Value("${rabbitmq.routingkey.activity}")  // Recommended: clearer name than "exchange.key"
-    private String routingKey;
-
-    public ActivityResponse trackActivity(ActivityRequest activityRequest) {
-
-        // Validate user
-        boolean isValidUser = userValidationService.validateUser(activityRequest.getUserId());
+    private final ActivityRollupService activityRollupService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores an activity. {@code verifiedUserId} is the user id the gateway vouched for (see
+     * {@link GatewayIdentityVerifier}), or null for untrusted callers; when it matches the request
+     * the user-service round trip is skipped.
+     */
+    public ActivityResponse trackActivity(ActivityRequest activityRequest, String verifiedUserId) {
+
+        // Validate user, unless the gateway already authenticated this user
+        boolean isValidUser = activityRequest.getUserId() != null && activityRequest.getUserId().equals(verifiedUserId)
+                || userValidationService.validateUser(activityRequest.getUserId());
         if (!isValidUser) {
             throw new RuntimeException("Invalid User: " + activityRequest.getUserId());
         }
 
-        // Build and save activity
-        Activity activity = Activity.builder()
-                .userId(activityRequest.getUserId())
-                .type(activityRequest.getType())
-                .duration(activityRequest.getDuration())
-                .caloriesBurned(activityRequest.getCaloriesBurned())
-                .startTime(activityRequest.getStartTime())
-                .additionalMetrics(activityRequest.getAdditionalMetrics())
-                .build();
+        // Build and save activity; it is stored as a pending outbox event
+        // and published to RabbitMQ by ActivityOutboxRelay
+        Activity activity = ActivityMapper.toActivity(activityRequest);
 
         Activity savedActivity = activityRepository.save(activity);
+        updateRollups(List.of(savedActivity));
+
+        // Map and return response
+        return ActivityMapper.toResponse(savedActivity);
+    }
+
+    public ActivityBatchResponse trackActivities(List<ActivityRequest> activityRequests, String verifiedUserId) {
+        ActivityBatchResult[] results = new ActivityBatchResult[activityRequests.size()];
 
-        // Publish to RabbitMQ (fire-and-forget)
+        // Validate every distinct user of the batch with a single call to the user service;
+        // the user the gateway authenticated needs no check
+        Set<String> userIds = new HashSet<>();
+        for (ActivityRequest request : activityRequests) {
+            if (request.getUserId() != null && !request.getUserId().equals(verifiedUserId)) {
+                userIds.add(request.getUserId());
+            }
+        }
+        Map<String, String> userErrors = new HashMap<>();
         try {
-            rabbitTemplate.convertAndSend(exchange, routingKey, savedActivity);
-            log.info("Activity published to RabbitMQ successfully: {}", savedActivity.getId());
+            Map<String, Boolean> validations = userIds.isEmpty() ? Map.of() : userValidationService.validateUsers(userIds);
+            userIds.forEach(userId -> userErrors.put(userId,
+                    Boolean.TRUE.equals(validations.get(userId)) ? null : "Invalid User: " + userId));
         } catch (Exception e) {
-            log.error("Failed to publish activity to RabbitMQ: {}", savedActivity.getId(), e);
+            log.warn("User validation failed for {} users in batch", userIds.size(), e);
+            // Never null: a missing error would let activities of unvalidated users through
+            String reason = "User validation failed: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            userIds.forEach(userId -> userErrors.put(userId, reason));
         }
 
-        // Map and return response
-        return mapToResponse(savedActivity);
+        List<Activity> activities = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < activityRequests.size(); i++) {
+            ActivityRequest request = activityRequests.get(i);
+            if (request.getUserId() == null) {
+                results[i] = ActivityBatchResult.failure(i, "userId is required");
+            } else if (userErrors.get(request.getUserId()) != null) {
+                results[i] = ActivityBatchResult.failure(i, userErrors.get(request.getUserId()));
+            } else {
+                try {
+                    // Batch uploads are backfills; their events must not delay live activities
+                    activities.add(ActivityMapper.toActivity(request, ActivityLane.BULK));
+                    positions.add(i);
+                } catch (ResponseStatusException e) {
+                    // An invalid item is reported on its own instead of failing the batch
+                    results[i] = ActivityBatchResult.failure(i, e.getReason());
+                }
+            }
+        }
+
+        // Single bulk insert for every accepted item
+        List<Activity> savedActivities = activities.isEmpty()
+                ? List.of()
+                : activityRepository.insert(activities);
+
+        updateRollups(savedActivities);
+
+        for (int i = 0; i < savedActivities.size(); i++) {
+            int position = positions.get(i);
+            results[position] = ActivityBatchResult.success(position, ActivityMapper.toResponse(savedActivities.get(i)));
+        }
+
+        int succeeded = savedActivities.size();
+        return new ActivityBatchResponse(succeeded, results.length - succeeded, List.of(results));
     }
 
-    private ActivityResponse mapToResponse(Activity activity) {
-        ActivityResponse response = new ActivityResponse();
-        response.setId(activity.getId());
-        response.setUserId(activity.getUserId());
-        response.setType(activity.getType());
-        response.setDuration(activity.getDuration());
-        response.setCaloriesBurned(activity.getCaloriesBurned());
-        response.setStartTime(activity.getStartTime());
-        response.setAdditionalMetrics(activity.getAdditionalMetrics());
-        // Add any other fields as needed
-
-        return response;
+    // The activity is already stored, so a rollup failure is logged rather than failing the request;
+    // ActivityRollupService.rebuild repairs any drift
+    private void updateRollups(List<Activity> savedActivities) {
+        try {
+            activityRollupService.record(savedActivities);
+        } catch (Exception e) {
+            log.error("Failed to update rollups for {} activities", savedActivities.size(), e);
+        }
     }
 
-    public ActivityResponse getActivityById(String id) {
+    public ActivityResponse getActivityById(String id, boolean includeSamples) {
         Activity activity = activityRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Activity not found with id: " + id));
 
-        return mapToResponse(activity);
+        return ActivityMapper.toResponse(activity, includeSamples);
+    }
+
+    public ActivityPage getUserActivities(String userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ActivityCursor after = cursor == null ? null : ActivityCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists
+        List<Activity> activities = activityRepository.findHistoryPage(
+                userId,
+                after == null ? null : after.startTime(),
+                after == null ? null : after.id(),
+                pageSize + 1);
+
+        boolean hasMore = activities.size() > pageSize;
+        List<Activity> page = hasMore ? activities.subList(0, pageSize) : activities;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Activity last = page.get(page.size() - 1);
+            nextCursor = new ActivityCursor(last.getStartTime(), last.getId()).encode();
+        }
+        return new ActivityPage(page.stream().map(ActivityMapper::toSummary).toList(), nextCursor);
     }
 
-   
-}
\ No newline at end of file
+    /**
+     * Writes the user's activities to {@code out} as newline-delimited JSON, one activity per line,
+     * reading them from a Mongo cursor. Only one cursor batch is held at a time, and a slow client
+     * blocks the write, which in turn stops the cursor from fetching further batches.
+     */
+    public void exportUserActivities(String userId, LocalDateTime from, LocalDateTime to,
+                                     OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<Activity> activities = activityRepository.streamHistory(userId, from, to);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<Activity> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                writer.write(ActivityMapper.toResponse(iterator.next()));
+                if (++exported % EXPORT_FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+            if (exported > 0) {
+                writer.flush();
+                out.write('\n');
+            }
+        }
+        log.info("Exported {} activities for user {}", exported, userId);
+    }
+}
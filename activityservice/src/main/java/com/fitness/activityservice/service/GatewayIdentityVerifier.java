@@ -0,0 +1,96 @@
+package com.fitness.activityservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Checks the identity headers the gateway adds after validating a JWT. A user id whose HMAC
+ * matches the shared secret and whose timestamp is recent has already been authenticated, so it
+ * does not need to be validated against the user service again.
+ *
+ * <p>Only active when {@code activity.identity.trust-gateway} is enabled and a secret is set;
+ * otherwise every caller is treated as untrusted and {@link UserValidationService} is used.
+ */
+@Component
+@Slf4j
+public class GatewayIdentityVerifier {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String TIMESTAMP_HEADER = "X-User-Id-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-User-Id-Signature";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration maxAge;
+    private final Counter trusted;
+    private final Counter rejected;
+
+    public GatewayIdentityVerifier(MeterRegistry meterRegistry,
+                                   @Value("${activity.identity.trust-gateway:false}") boolean trustGateway,
+                                   @Value("${activity.identity.secret:}") String secret,
+                                   @Value("${activity.identity.max-age:60s}") Duration maxAge) {
+        if (trustGateway && secret.isBlank()) {
+            log.warn("activity.identity.trust-gateway is enabled without a secret; gateway identity is ignored");
+        }
+        this.key = trustGateway && !secret.isBlank()
+                ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM)
+                : null;
+        this.maxAge = maxAge;
+        this.trusted = meterRegistry.counter("activity.identity.gateway", "result", "trusted");
+        this.rejected = meterRegistry.counter("activity.identity.gateway", "result", "rejected");
+    }
+
+    /**
+     * Returns the user id the gateway vouched for, or null when trust is disabled or the headers
+     * are missing, stale or not signed with the shared secret.
+     */
+    public String verifiedUserId(String userId, String timestamp, String signature) {
+        if (key == null || userId == null || timestamp == null || signature == null) {
+            return null;
+        }
+        if (isFresh(timestamp) && MessageDigest.isEqual(
+                sign(userId, timestamp).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII))) {
+            trusted.increment();
+            return userId;
+        }
+        rejected.increment();
+        log.warn("Rejected gateway identity header for userId {}", userId);
+        return null;
+    }
+
+    private boolean isFresh(String timestamp) {
+        try {
+            long age = Instant.now().getEpochSecond() - Long.parseLong(timestamp);
+            // A small negative age allows for clock skew between the gateway and this service
+            return Math.abs(age) <= maxAge.toSeconds();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Same payload and encoding as the gateway's IdentityHeaderFilter
+    private String sign(String userId, String timestamp) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((userId + "\n" + timestamp).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot verify identity header", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.fitness.activityservice.service;
+
+import com.fitness.activityservice.dto.ActivityRequest;
+import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.repository.ReactiveActivityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveActivityService {
+
+    private final ReactiveActivityRepository reactiveActivityRepository;
+    private final UserValidationService userValidationService;
+    private final ActivityRollupService activityRollupService;
+
+    // verifiedUserId is the gateway-authenticated user id, or null; see ActivityService.trackActivity
+    public Mono<ActivityResponse> trackActivity(ActivityRequest activityRequest, String verifiedUserId) {
+        Mono<Boolean> validation = activityRequest.getUserId() != null && activityRequest.getUserId().equals(verifiedUserId)
+                ? Mono.just(true)
+                : userValidationService.validateUserReactive(activityRequest.getUserId());
+        return validation
+                .flatMap(isValidUser -> isValidUser
+                        ? reactiveActivityRepository.save(ActivityMapper.toActivity(activityRequest))
+                        : Mono.error(new RuntimeException("Invalid User: " + activityRequest.getUserId())))
+                .flatMap(savedActivity -> activityRollupService.recordReactive(savedActivity)
+                        .onErrorResume(e -> {
+                            log.error("Failed to update rollups for activity {}", savedActivity.getId(), e);
+                            return Mono.empty();
+                        })
+                        .thenReturn(savedActivity))
+                .map(ActivityMapper::toResponse);
+    }
+
+    public Mono<ActivityResponse> getActivityById(String id, boolean includeSamples) {
+        return reactiveActivityRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Activity not found with id: " + id)))
+                .map(activity -> ActivityMapper.toResponse(activity, includeSamples));
+    }
+}
@@ -1,40 +1,167 @@
 package com.fitness.activityservice.service;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineStatsCounter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class UserValidationService {
 
+    private static final String CACHE_NAME = "userValidation";
+    private static final ParameterizedTypeReference<Map<String, Boolean>> VALIDATION_MAP =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient userServiceWebClient;
+    private final int bulkChunkSize;
 
+    // Concurrent lookups for the same userId share the in-flight future
+    private final AsyncLoadingCache<String, Boolean> validationCache;
 
+    public UserValidationService(WebClient userServiceWebClient,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${user-validation.cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${user-validation.cache.ttl:10m}") Duration ttl,
+                                 @Value("${user-validation.cache.negative-ttl:30s}") Duration negativeTtl,
+                                 @Value("${user-validation.bulk-chunk-size:1000}") int bulkChunkSize) {
+        this.userServiceWebClient = userServiceWebClient;
+        this.bulkChunkSize = bulkChunkSize;
 
-        private final WebClient userServiceWebClient;
+        CaffeineStatsCounter statsCounter = new CaffeineStatsCounter(meterRegistry, CACHE_NAME);
+        this.validationCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ValidationExpiry(ttl, negativeTtl))
+                .recordStats(() -> statsCounter)
+                .buildAsync(new ValidationLoader());
+        statsCounter.registerSizeMetric(validationCache.synchronous());
+    }
 
     public boolean validateUser(String userId) {
         try {
-            return userServiceWebClient.get()
-                    .uri("/api/users/{userId}/validate", userId)
-                    .retrieve()
-                    .bodyToMono(Boolean.class)
-                    .block();
-
-        } catch (WebClientResponseException e) {
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new RuntimeException("User not found: " + userId);
+            return validationCache.get(userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WebClientResponseException responseException) {
+                log.warn("User validation call failed for userId {}: {}", userId, responseException.getStatusCode());
+                return false;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            else if (e.getStatusCode() == HttpStatus.BAD_REQUEST) {
-                throw new RuntimeException("Invalid Request " + userId);
+            throw e;
+        }
+    }
+
+    /**
+     * Validates every id in one call to the user service, apart from ids that are already cached.
+     * Failures are thrown, as with {@link #validateUser}, and nothing is cached for them.
+     */
+    public Map<String, Boolean> validateUsers(Collection<String> userIds) {
+        try {
+            return validationCache.getAll(userIds).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
-        return false;
     }
 
+    public Mono<Boolean> validateUserReactive(String userId) {
+        return Mono.fromFuture(() -> validationCache.get(userId))
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    log.warn("User validation call failed for userId {}: {}", userId, e.getStatusCode());
+                    return Mono.just(false);
+                });
+    }
+
+    private Mono<Boolean> fetchValidation(String userId) {
+        return userServiceWebClient.get()
+                .uri("/api/users/{userId}/validate", userId)
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .defaultIfEmpty(false)
+                // A missing user is a negative result and gets cached with the short TTL
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(false))
+                .onErrorMap(WebClientResponseException.BadRequest.class,
+                        e -> new RuntimeException("Invalid Request " + userId));
+    }
+
+    // The user service accepts a bounded number of ids per call, so large batches are split
+    private Mono<Map<String, Boolean>> fetchValidations(Set<? extends String> userIds) {
+        List<String> ids = List.copyOf(userIds);
+        return Flux.range(0, (ids.size() + bulkChunkSize - 1) / bulkChunkSize)
+                .concatMap(chunk -> fetchValidationChunk(
+                        ids.subList(chunk * bulkChunkSize, Math.min((chunk + 1) * bulkChunkSize, ids.size()))))
+                .collect(() -> new HashMap<>(), Map::putAll);
+    }
+
+    private Mono<Map<String, Boolean>> fetchValidationChunk(List<String> userIds) {
+        return userServiceWebClient.post()
+                .uri("/api/users/validate")
+                .bodyValue(Map.of("userIds", userIds))
+                .retrieve()
+                .bodyToMono(VALIDATION_MAP)
+                .map(validations -> {
+                    // Ids the user service left out are unknown users
+                    Map<String, Boolean> result = new HashMap<>();
+                    userIds.forEach(userId -> result.put(userId, Boolean.TRUE.equals(validations.get(userId))));
+                    return result;
+                })
+                .onErrorMap(WebClientResponseException.BadRequest.class,
+                        e -> new RuntimeException("Invalid Request for " + userIds.size() + " userIds"));
+    }
+
+    // Single lookups use the per-user endpoint, cache misses from getAll share bulk requests
+    private class ValidationLoader implements AsyncCacheLoader<String, Boolean> {
+
+        @Override
+        public CompletableFuture<Boolean> asyncLoad(String userId, Executor executor) {
+            return fetchValidation(userId).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Boolean>> asyncLoadAll(Set<? extends String> userIds, Executor executor) {
+            return fetchValidations(userIds).toFuture();
+        }
+    }
+
+    private record ValidationExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Boolean> {
+
+        @Override
+        public long expireAfterCreate(String userId, Boolean valid, long currentTime) {
+            return (Boolean.TRUE.equals(valid) ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String userId, Boolean valid, long currentTime, long currentDuration) {
+            return expireAfterCreate(userId, valid, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String userId, Boolean valid, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
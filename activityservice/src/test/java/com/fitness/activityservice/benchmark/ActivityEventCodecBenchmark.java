@@ -0,0 +1,113 @@
+package com.fitness.activityservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fitness.activityservice.event.ActivityEvent;
+import com.fitness.activityservice.event.ActivityEventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of {@link ActivityEventCodec} against Jackson JSON for a typical event.
+ * Run {@link #main} from the IDE or {@code mvn test-compile exec:java} with the test classpath;
+ * payload sizes are printed before the measurements start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivityEventCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ActivityEvent event;
+    private byte[] binaryPayload;
+    private byte[] jsonPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = jsonMapper();
+        event = typicalEvent();
+        binaryPayload = ActivityEventCodec.encode(event);
+        jsonPayload = objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return ActivityEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public ActivityEvent binaryDecode() {
+        return ActivityEventCodec.decode(binaryPayload);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws IOException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public ActivityEvent jsonDecode() throws IOException {
+        return objectMapper.readValue(jsonPayload, ActivityEvent.class);
+    }
+
+    static ActivityEvent typicalEvent() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("distanceKm", 8.42);
+        metrics.put("avgHeartRate", 152);
+        metrics.put("maxHeartRate", 181);
+        metrics.put("avgPaceSecPerKm", 318);
+        metrics.put("elevationGainM", 74);
+        metrics.put("device", "Garmin Forerunner 265");
+        metrics.put("indoor", false);
+        metrics.put("splitsSec", List.of(322, 315, 319, 310, 321, 317, 314, 308));
+
+        return ActivityEvent.builder()
+                .id("6710f2a95c1d4b2e8f3a7c91")
+                .userId("3f2b8c1e-7a4d-4e9b-a1c2-5d6e7f8a9b0c")
+                .type("RUNNING")
+                .duration(45)
+                .caloriesBurned(612)
+                .startTime(LocalDateTime.of(2026, 10, 18, 7, 15))
+                .createdAt(LocalDateTime.of(2026, 10, 18, 8, 2, 11, 417_000_000))
+                .additionalMetrics(metrics)
+                .build();
+    }
+
+    static ObjectMapper jsonMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        ActivityEvent event = typicalEvent();
+        System.out.printf("Payload bytes: binary=%d json=%d%n",
+                ActivityEventCodec.encode(event).length, jsonMapper().writeValueAsBytes(event).length);
+
+        new Runner(new OptionsBuilder()
+                .include(ActivityEventCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.fitness.activityservice.benchmark;
+
+import com.fitness.activityservice.dto.ActivityRequest;
+import com.fitness.activityservice.model.ActivityType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Load benchmark comparing the MVC write path ({@code POST /api/activities}) with the
+ * reactive one ({@code POST /api/activities/reactive}) against a running activityservice.
+ *
+ * <p>Run the service with a fixed CPU budget (e.g. {@code -XX:ActiveProcessorCount=2} or
+ * {@code taskset -c 0,1}) so both paths are compared at the same CPU, then:
+ *
+ * <pre>
+ * java ... WritePathBenchmark http://localhost:8083 &lt;userId&gt; [requests] [concurrency]
+ * </pre>
+ */
+public class WritePathBenchmark {
+
+    public static void main(String[] args) {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8083";
+        String userId = args.length > 1 ? args[1] : "benchmark-user";
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+        WebClient client = WebClient.builder().baseUrl(baseUrl).build();
+        ActivityRequest request = sampleRequest(userId);
+
+        for (String path : new String[]{"/api/activities", "/api/activities/reactive"}) {
+            // Warm up JIT and connection pools before measuring
+            run(client, path, request, Math.min(requests, 1_000), concurrency);
+            Result result = run(client, path, request, requests, concurrency);
+            System.out.printf("%-28s %8.0f req/s   p50 %6.2f ms   p99 %6.2f ms   errors %d%n",
+                    path, result.requestsPerSecond(), result.p50Millis(), result.p99Millis(), result.errors());
+        }
+    }
+
+    private static Result run(WebClient client, String path, ActivityRequest request, int requests, int concurrency) {
+        long[] latencies = new long[requests];
+        int[] errors = new int[1];
+        long start = System.nanoTime();
+
+        Flux.range(0, requests)
+                .flatMap(i -> {
+                    long sent = System.nanoTime();
+                    return client.post().uri(path)
+                            .bodyValue(request)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(ignored -> latencies[i] = System.nanoTime() - sent)
+                            .onErrorResume(e -> {
+                                latencies[i] = System.nanoTime() - sent;
+                                synchronized (errors) {
+                                    errors[0]++;
+                                }
+                                return Mono.empty();
+                            });
+                }, concurrency)
+                .blockLast();
+
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(
+                requests / (elapsed / 1_000_000_000.0),
+                latencies[(int) (requests * 0.50)] / 1_000_000.0,
+                latencies[Math.min(requests - 1, (int) (requests * 0.99))] / 1_000_000.0,
+                errors[0]);
+    }
+
+    private static ActivityRequest sampleRequest(String userId) {
+        ActivityRequest request = new ActivityRequest();
+        request.setUserId(userId);
+        request.setType(ActivityType.RUNNING);
+        request.setDuration(30);
+        request.setCaloriesBurned(300);
+        request.setStartTime(LocalDateTime.now());
+        request.setAdditionalMetrics(Map.of("distanceKm", 5.2, "avgHeartRate", 148));
+        return request;
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, int errors) {
+    }
+}
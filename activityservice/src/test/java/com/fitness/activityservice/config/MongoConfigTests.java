@@ -0,0 +1,84 @@
+package com.fitness.activityservice.config;
+
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.repository.ReactiveActivityRepository;
+import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mapping.callback.ReactiveEntityCallbacks;
+import org.springframework.data.mongodb.ReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoConfigTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void auditsActivitiesSavedThroughTheReactiveRepository() {
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+			MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+			context.registerBean(MongoMappingContext.class, () -> {
+				MongoMappingContext mappingContext = new MongoMappingContext();
+				mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+				return mappingContext;
+			});
+			context.registerBean(ReactiveMongoTemplate.class, () -> mock(ReactiveMongoTemplate.class));
+			context.register(MongoConfig.class);
+			context.refresh();
+
+			// Stands in for the driver, which assigns the _id of an inserted document
+			MongoCollection<Document> collection = mock(MongoCollection.class, RETURNS_SELF);
+			when(collection.insertOne(any(Document.class))).thenAnswer(invocation -> {
+				BsonObjectId id = new BsonObjectId();
+				invocation.<Document>getArgument(0).put("_id", id.getValue());
+				return Mono.just(InsertOneResult.acknowledged(id));
+			});
+			MongoDatabase database = mock(MongoDatabase.class);
+			when(database.getCollection(anyString(), eq(Document.class))).thenReturn(collection);
+			ReactiveMongoDatabaseFactory databaseFactory = mock(ReactiveMongoDatabaseFactory.class);
+			when(databaseFactory.getMongoDatabase()).thenReturn(Mono.just(database));
+			when(databaseFactory.getExceptionTranslator()).thenReturn(mock(PersistenceExceptionTranslator.class));
+
+			MongoMappingContext mappingContext = context.getBean(MongoMappingContext.class);
+			MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+			converter.setCustomConversions(conversions);
+			converter.afterPropertiesSet();
+			ReactiveMongoTemplate template = new ReactiveMongoTemplate(databaseFactory, converter);
+			template.setEntityCallbacks(ReactiveEntityCallbacks.create(context));
+			ReactiveActivityRepository repository = new ReactiveMongoRepositoryFactory(template)
+					.getRepository(ReactiveActivityRepository.class);
+
+			Activity saved = repository.save(Activity.builder().userId("user-1").build()).block();
+
+			assertNotNull(saved.getCreatedAt());
+			assertNotNull(saved.getUpdatedAt());
+			ArgumentCaptor<Document> inserted = ArgumentCaptor.forClass(Document.class);
+			verify(collection).insertOne(inserted.capture());
+			assertInstanceOf(Date.class, inserted.getValue().get("createdAt"));
+		}
+	}
+}
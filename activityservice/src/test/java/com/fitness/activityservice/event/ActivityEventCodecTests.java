@@ -0,0 +1,126 @@
+package com.fitness.activityservice.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ActivityEventCodecTests {
+
+	// Shared with the aiservice's ActivityEventCodecTests; both copies of the codec must produce it
+	static final String GOLDEN_PAYLOAD = "01ff010261310275310752554e4e494e473cf403f0d5a3ad0d008af2a3ad0d00030a64697374616e63654b6d044014cccccccccccd0673706c697473060203d80403ec0406696e646f6f7201";
+
+	@Test
+	void roundTripsEveryFieldAndMetricType() {
+		Map<String, Object> nested = new LinkedHashMap<>();
+		nested.put("zone", 3);
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("distanceKm", 8.42);
+		metrics.put("avgHeartRate", 152);
+		metrics.put("steps", 12_000_000_000L);
+		metrics.put("indoor", true);
+		metrics.put("device", "Garmin ✓");
+		metrics.put("missing", null);
+		metrics.put("splits", Arrays.asList(-5, 310, null));
+		metrics.put("detail", nested);
+
+		ActivityEvent event = ActivityEvent.builder()
+				.id("6710f2a95c1d4b2e8f3a7c91")
+				.userId("user-1")
+				.type("RUNNING")
+				.duration(45)
+				.caloriesBurned(-1)
+				.startTime(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123_456_789))
+				.createdAt(LocalDateTime.of(2026, 10, 18, 8, 2, 11))
+				.additionalMetrics(metrics)
+				.build();
+
+		assertEquals(event, ActivityEventCodec.decode(ActivityEventCodec.encode(event)));
+	}
+
+	@Test
+	void leavesAbsentFieldsNull() {
+		ActivityEvent decoded = ActivityEventCodec.decode(ActivityEventCodec.encode(
+				ActivityEvent.builder().id("a1").build()));
+
+		assertEquals("a1", decoded.getId());
+		assertNull(decoded.getUserId());
+		assertNull(decoded.getAdditionalMetrics());
+	}
+
+	@Test
+	void rejectsUnknownSchemaVersion() {
+		byte[] payload = ActivityEventCodec.encode(ActivityEvent.builder().id("a1").build());
+		payload[0] = 99;
+
+		assertThrows(IllegalArgumentException.class, () -> ActivityEventCodec.decode(payload));
+	}
+
+	@Test
+	void keepsListMetricsAsLists() {
+		ActivityEvent event = ActivityEvent.builder().additionalMetrics(Map.of("splits", List.of(1, 2))).build();
+
+		assertEquals(List.of(1, 2), ActivityEventCodec.decode(ActivityEventCodec.encode(event))
+				.getAdditionalMetrics().get("splits"));
+	}
+
+	@Test
+	void rejectsCollectionSizesLargerThanThePayload() {
+		byte[] emptyMap = ActivityEventCodec.encode(ActivityEvent.builder().additionalMetrics(Map.of()).build());
+		byte[] emptyList = ActivityEventCodec.encode(ActivityEvent.builder().additionalMetrics(Map.of("splits", List.of())).build());
+
+		assertThrows(IllegalArgumentException.class, () -> ActivityEventCodec.decode(withHugeTrailingSize(emptyMap)));
+		assertThrows(IllegalArgumentException.class, () -> ActivityEventCodec.decode(withHugeTrailingSize(emptyList)));
+	}
+
+	// Replaces the trailing zero size with a varint of Integer.MAX_VALUE
+	private static byte[] withHugeTrailingSize(byte[] payload) {
+		byte[] tampered = Arrays.copyOf(payload, payload.length + 4);
+		byte[] size = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+		System.arraycopy(size, 0, tampered, payload.length - 1, size.length);
+		return tampered;
+	}
+
+	@Test
+	void encodesTheGoldenPayloadSharedWithTheAiservice() {
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("distanceKm", 5.2);
+		metrics.put("splits", List.of(300, 310));
+		metrics.put("indoor", false);
+		ActivityEvent event = ActivityEvent.builder()
+				.id("a1")
+				.userId("u1")
+				.type("RUNNING")
+				.duration(30)
+				.caloriesBurned(250)
+				.startTime(LocalDateTime.of(2026, 10, 18, 7, 30))
+				.createdAt(LocalDateTime.of(2026, 10, 18, 8, 0, 5))
+				.additionalMetrics(metrics)
+				.build();
+
+		assertEquals(GOLDEN_PAYLOAD, HexFormat.of().formatHex(ActivityEventCodec.encode(event)));
+		assertEquals(event, ActivityEventCodec.decode(HexFormat.of().parseHex(GOLDEN_PAYLOAD)));
+	}
+
+	@Test
+	void reportsATruncatedPayloadAsAConversionError() {
+		byte[] golden = HexFormat.of().parseHex(GOLDEN_PAYLOAD);
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(ActivityEventCodec.CONTENT_TYPE);
+		Message truncated = new Message(Arrays.copyOf(golden, golden.length - 4), properties);
+
+		assertThrows(MessageConversionException.class,
+				() -> new ActivityEventMessageConverter(null, EventFormat.BINARY).fromMessage(truncated));
+	}
+}
@@ -0,0 +1,48 @@
+package com.fitness.activityservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SampleSeriesTests {
+
+	@Test
+	void decodesToTheOriginalSamples() {
+		int[] heartRate = {92, 95, 101, 118, 137, 152, 161, 158, 149, 130, Integer.MIN_VALUE, Integer.MAX_VALUE};
+
+		assertArrayEquals(heartRate, SampleSeries.of(heartRate, 1, null).values());
+	}
+
+	@Test
+	void computesSummaryAndZonesOnIngest() {
+		SampleSeries series = SampleSeries.of(new int[]{95, 110, 125, 145, 165, 185}, 5, new int[]{100, 120, 140, 160, 180});
+
+		assertEquals(95, series.getMin());
+		assertEquals(185, series.getMax());
+		assertEquals(137.5, series.getAvg());
+		assertArrayEquals(new int[]{5, 5, 5, 5, 5, 5}, series.getZoneSeconds());
+	}
+
+	@Test
+	void packsSlowlyChangingSamplesIntoAboutOneBytePerSample() {
+		int[] samples = new int[3600];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = 140 + (i % 7) - 3;
+		}
+
+		SampleSeries series = SampleSeries.of(samples, 1, null);
+
+		assertTrue(series.getData().length <= samples.length + 2);
+		assertNull(series.getZoneSeconds());
+	}
+
+	@Test
+	void rejectsNonPositiveIntervals() {
+		assertThrows(IllegalArgumentException.class, () -> SampleSeries.of(new int[]{120}, 0, null));
+		assertThrows(IllegalArgumentException.class, () -> SampleSeries.of(new int[]{120}, -5, null));
+	}
+}
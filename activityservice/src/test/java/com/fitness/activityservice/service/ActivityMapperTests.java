@@ -0,0 +1,47 @@
+package com.fitness.activityservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.activityservice.dto.ActivityResponse;
+import com.fitness.activityservice.dto.SampleSeriesResponse;
+import com.fitness.activityservice.model.Activity;
+import com.fitness.activityservice.model.SampleSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ActivityMapperTests {
+
+	private static final int[] HEART_RATE = {120, 122, 125, 131, 140, 138};
+
+	private final Activity activity = Activity.builder()
+			.id("a1")
+			.userId("u1")
+			.samples(Map.of("heartRate", SampleSeries.of(HEART_RATE, 1, null)))
+			.build();
+
+	@Test
+	void returnsOnlySampleSummariesByDefault() throws Exception {
+		ActivityResponse response = ActivityMapper.toResponse(activity);
+
+		SampleSeriesResponse heartRate = response.getSamples().get("heartRate");
+		assertEquals(HEART_RATE.length, heartRate.getCount());
+		assertEquals(120, heartRate.getMin());
+		assertEquals(140, heartRate.getMax());
+		assertNull(heartRate.getValues());
+		JsonNode json = new ObjectMapper().valueToTree(response);
+		assertFalse(json.get("samples").get("heartRate").has("values"));
+	}
+
+	@Test
+	void returnsRawSamplesWhenAskedFor() {
+		ActivityResponse response = ActivityMapper.toResponse(activity, true);
+
+		assertArrayEquals(HEART_RATE, response.getSamples().get("heartRate").getValues());
+	}
+}
@@ -0,0 +1,105 @@
+package com.fitness.activityservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GatewayIdentityVerifierTests {
+
+	private static final String SECRET = "test-secret";
+	private static final String USER_ID = "0b5e7c1a-3f2d-4e8b-9a61-7d2c4f0e9b13";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void acceptsAFreshSignedIdentity() {
+		String timestamp = now();
+
+		assertEquals(USER_ID, verifier(true, SECRET).verifiedUserId(USER_ID, timestamp, sign(USER_ID, timestamp, SECRET)));
+		assertEquals(1, count("trusted"));
+	}
+
+	@Test
+	void rejectsATamperedUserId() {
+		String timestamp = now();
+		String signature = sign(USER_ID, timestamp, SECRET);
+
+		assertNull(verifier(true, SECRET).verifiedUserId("someone-else", timestamp, signature));
+		assertEquals(1, count("rejected"));
+	}
+
+	@Test
+	void rejectsASignatureFromAnotherSecret() {
+		String timestamp = now();
+
+		assertNull(verifier(true, SECRET).verifiedUserId(USER_ID, timestamp, sign(USER_ID, timestamp, "other-secret")));
+	}
+
+	@Test
+	void rejectsAStaleTimestamp() {
+		String timestamp = String.valueOf(Instant.now().minusSeconds(120).getEpochSecond());
+
+		assertNull(verifier(true, SECRET).verifiedUserId(USER_ID, timestamp, sign(USER_ID, timestamp, SECRET)));
+		assertEquals(1, count("rejected"));
+	}
+
+	@Test
+	void rejectsAMalformedTimestamp() {
+		assertNull(verifier(true, SECRET).verifiedUserId(USER_ID, "soon", sign(USER_ID, "soon", SECRET)));
+	}
+
+	@Test
+	void ignoresMissingHeaders() {
+		GatewayIdentityVerifier verifier = verifier(true, SECRET);
+		String timestamp = now();
+		String signature = sign(USER_ID, timestamp, SECRET);
+
+		assertNull(verifier.verifiedUserId(null, timestamp, signature));
+		assertNull(verifier.verifiedUserId(USER_ID, null, signature));
+		assertNull(verifier.verifiedUserId(USER_ID, timestamp, null));
+		assertEquals(0, count("rejected"));
+	}
+
+	@Test
+	void ignoresSignedIdentityWhenTrustIsDisabled() {
+		String timestamp = now();
+		String signature = sign(USER_ID, timestamp, SECRET);
+
+		assertNull(verifier(false, SECRET).verifiedUserId(USER_ID, timestamp, signature));
+		assertNull(verifier(true, "").verifiedUserId(USER_ID, timestamp, signature));
+		assertEquals(0, count("trusted"));
+	}
+
+	private GatewayIdentityVerifier verifier(boolean trustGateway, String secret) {
+		return new GatewayIdentityVerifier(meterRegistry, trustGateway, secret, Duration.ofSeconds(60));
+	}
+
+	private double count(String result) {
+		return meterRegistry.counter("activity.identity.gateway", "result", result).count();
+	}
+
+	private static String now() {
+		return String.valueOf(Instant.now().getEpochSecond());
+	}
+
+	// Mirrors the gateway's IdentityHeaderFilter
+	private static String sign(String userId, String timestamp, String secret) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			byte[] digest = mac.doFinal((userId + "\n" + timestamp).getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
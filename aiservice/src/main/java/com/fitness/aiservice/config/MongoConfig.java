@@ -1,4 +1,51 @@
 package com.fitness.aiservice.config;
 
+import com.fitness.aiservice.model.CachedRecommendation;
+import com.fitness.aiservice.model.Recommendation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+
+/**
+ * Indexes the recommendation store relies on. Listeners start consuming before these exist on a
+ * fresh database, and the lookups they serve only get slower until then, so they are requested
+ * after startup instead of blocking it.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
 public class MongoConfig {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        Flux.concat(
+                        // History pages per user, newest first (RecommendationPageRepository)
+                        reactiveMongoTemplate.indexOps(Recommendation.class).ensureIndex(new Index()
+                                .named("user_created_at_idx")
+                                .on("userId", Sort.Direction.ASC)
+                                .on("createdAt", Sort.Direction.DESC)
+                                .on("_id", Sort.Direction.DESC)),
+                        // Recommendations stored before their id was the activity id
+                        reactiveMongoTemplate.indexOps(Recommendation.class).ensureIndex(new Index()
+                                .named("activityId")
+                                .on("activityId", Sort.Direction.ASC)),
+                        // Lets Mongo drop persistent cache entries once expiresAt has passed
+                        reactiveMongoTemplate.indexOps(CachedRecommendation.class).ensureIndex(new Index()
+                                .named("expiresAt")
+                                .on("expiresAt", Sort.Direction.ASC)
+                                .expire(Duration.ZERO)))
+                .subscribe(
+                        index -> log.info("Ensured recommendation index {}", index),
+                        e -> log.error("Failed to create recommendation indexes", e));
+    }
 }
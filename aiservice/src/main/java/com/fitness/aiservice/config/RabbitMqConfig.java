@@ -1,13 +1,25 @@
 package com.fitness.aiservice.config;
 
+import com.fitness.aiservice.event.ActivityEventMessageConverter;
 import org.springframework.amqp.core.Binding; // Corrected import
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Queue;    // Corrected import
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMqConfig {
 
@@ -20,6 +32,30 @@ public class RabbitMqConfig {
     @Value("${rabbitmq.routing.key}")
     private String routingKey;
 
+    @Value("${rabbitmq.queue.bulk-name:activity.bulk.queue}")
+    private String bulkQueue;
+
+    @Value("${rabbitmq.routing.bulk-key:activity.created.bulk}")
+    private String bulkRoutingKey;
+
+    @Value("${rabbitmq.retry.exchange:activity.retry.exchange}")
+    private String retryExchange;
+
+    @Value("${rabbitmq.retry.delays:5s,30s,5m}")
+    private List<Duration> retryDelays;
+
+    @Value("${rabbitmq.dead-letter.queue:activity.queue.dlq}")
+    private String deadLetterQueue;
+
+    @Value("${ai.listener.concurrency:8}")
+    private int listenerConcurrency;
+
+    @Value("${ai.listener.bulk-concurrency:4}")
+    private int bulkListenerConcurrency;
+
+    @Value("${ai.listener.prefetch-per-lane:2}")
+    private int prefetchPerLane;
+
     @Bean
     public Queue activityQueue() {
         // Uses org.springframework.amqp.core.Queue constructor
@@ -36,4 +72,89 @@ public class RabbitMqConfig {
         // activityQueue and activityExchange are now correctly typed as Spring AMQP objects
         return BindingBuilder.bind(activityQueue).to(activityExchange).with(routingKey);
     }
-}
\ No newline at end of file
+
+    // Batch uploads and backfills, consumed on their own lanes
+    @Bean
+    public Queue activityBulkQueue() {
+        return new Queue(bulkQueue, true);
+    }
+
+    @Bean
+    public Binding activityBulkBinding(Queue activityBulkQueue, DirectExchange activityExchange) {
+        return BindingBuilder.bind(activityBulkQueue).to(activityExchange).with(bulkRoutingKey);
+    }
+
+    /**
+     * Delayed retries without touching the shared activity queue's arguments: a failed message
+     * is re-published to the retry queue for its attempt, whose TTL dead-letters it back to the
+     * activity exchange once the delay has passed. After the last delay it goes to the
+     * dead-letter queue and stays there until replayed.
+     */
+    @Bean
+    public Declarables activityRetryTopology() {
+        DirectExchange retry = new DirectExchange(retryExchange);
+        List<Declarable> declarables = new ArrayList<>(List.of(retry));
+        // Each source queue has its own retry queues so a retried message returns to its lane
+        addRetryQueues(declarables, retry, queue, routingKey);
+        addRetryQueues(declarables, retry, bulkQueue, bulkRoutingKey);
+        Queue deadLetters = QueueBuilder.durable(deadLetterQueue).build();
+        declarables.add(deadLetters);
+        declarables.add(BindingBuilder.bind(deadLetters).to(retry).with(deadLetterQueue));
+        return new Declarables(declarables);
+    }
+
+    private void addRetryQueues(List<Declarable> declarables, DirectExchange retry, String sourceQueue,
+                                String sourceRoutingKey) {
+        for (Duration delay : retryDelays) {
+            Queue retryQueue = QueueBuilder.durable(retryQueueName(sourceQueue, delay))
+                    .ttl((int) delay.toMillis())
+                    .deadLetterExchange(exchange)
+                    .deadLetterRoutingKey(sourceRoutingKey)
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue).to(retry).with(retryQueue.getName()));
+        }
+    }
+
+    // The delay is part of the name because a queue's TTL cannot change once declared
+    public static String retryQueueName(String queue, Duration delay) {
+        long millis = delay.toMillis();
+        return queue + ".retry." + (millis % 1000 == 0 ? millis / 1000 + "s" : millis + "ms");
+    }
+
+    // Used by the auto-configured listener container factory to decode activity events
+    @Bean
+    public MessageConverter activityEventMessageConverter() {
+        return new ActivityEventMessageConverter();
+    }
+
+    /**
+     * One consumer per queue so deliveries arrive in queue order; parallelism comes from
+     * ActivityDispatcher's per-user lanes. Acks are manual and sent once a lane finishes,
+     * so prefetch (lanes x prefetch-per-lane) is also the cap on unacknowledged work.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory activityListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter activityEventMessageConverter) {
+        return listenerContainerFactory(connectionFactory, activityEventMessageConverter, listenerConcurrency);
+    }
+
+    // Same as above for the bulk queue; its smaller prefetch leaves the backfill backlog in RabbitMQ
+    @Bean
+    public SimpleRabbitListenerContainerFactory activityBulkListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter activityEventMessageConverter) {
+        return listenerContainerFactory(connectionFactory, activityEventMessageConverter, bulkListenerConcurrency);
+    }
+
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter messageConverter, int lanes) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(lanes * prefetchPerLane);
+        return factory;
+    }
+}
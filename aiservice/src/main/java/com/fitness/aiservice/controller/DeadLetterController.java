@@ -0,0 +1,33 @@
+package com.fitness.aiservice.controller;
+
+import com.fitness.aiservice.dto.DeadLetter;
+import com.fitness.aiservice.service.DeadLetterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// Operator endpoints for activities that exhausted their retries; the gateway does not route
+// them (gateway.internal-paths), so they are only reachable on the aiservice's own port
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/ai/admin/dead-letters")
+public class DeadLetterController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetter>> getDeadLetters(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(deadLetterService.peek(limit));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<Integer> replayDeadLetters(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(deadLetterService.replay(limit));
+    }
+}
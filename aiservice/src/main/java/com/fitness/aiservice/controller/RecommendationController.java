@@ -1,5 +1,6 @@
 package com.fitness.aiservice.controller;
 
+import com.fitness.aiservice.dto.RecommendationPage;
 import com.fitness.aiservice.model.Recommendation;
 import com.fitness.aiservice.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
@@ -7,10 +8,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/recommendations")
@@ -19,8 +19,10 @@ public class RecommendationController {
     private final RecommendationService recommendationService;
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Recommendation>> getUserRecommendations(@PathVariable String userId) {
-        return ResponseEntity.ok(recommendationService.getUserRecommendation(userId));
+    public ResponseEntity<RecommendationPage> getUserRecommendations(@PathVariable String userId,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(recommendationService.getUserRecommendations(userId, cursor, size));
     }
 
     @GetMapping("/activity/{activityId}")
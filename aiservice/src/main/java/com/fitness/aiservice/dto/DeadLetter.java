@@ -0,0 +1,21 @@
+package com.fitness.aiservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetter {
+    private String activityId;
+    private String userId;
+    private String activityType;
+    private Integer attempts;
+    private String lastError;
+    private Instant failedAt;
+}
@@ -0,0 +1,17 @@
+package com.fitness.aiservice.dto;
+
+import com.fitness.aiservice.model.Recommendation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecommendationPage {
+    private List<Recommendation> items;
+    // Opaque cursor for the next page, null when this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,50 @@
+package com.fitness.aiservice.event;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fitness.aiservice.model.Activity;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Reads activity events in either format the activityservice publishes: the binary
+ * {@link ActivityEventCodec} encoding or the JSON debugging fallback, chosen by content type.
+ */
+public class ActivityEventMessageConverter implements MessageConverter {
+
+    public static final String SCHEMA_VERSION_HEADER = "x-event-schema-version";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof Activity activity)) {
+            throw new MessageConversionException("Unsupported payload type: " + object.getClass().getName());
+        }
+        messageProperties.setHeader(SCHEMA_VERSION_HEADER, ActivityEventCodec.SCHEMA_VERSION);
+        messageProperties.setContentType(ActivityEventCodec.CONTENT_TYPE);
+        return new Message(ActivityEventCodec.encode(activity), messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        try {
+            if (ActivityEventCodec.CONTENT_TYPE.equals(contentType)) {
+                return ActivityEventCodec.decode(message.getBody());
+            }
+            return objectMapper.readValue(message.getBody(), Activity.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MessageConversionException("Failed to read activity event of type " + contentType, e);
+        }
+    }
+}
@@ -10,8 +10,8 @@ import java.util.Map;
 
 
 public class Activity {
-    private String Id;
-    private String UserId;
+    private String id;
+    private String userId;
     private String type;
     private Integer duration;
     private Integer caloriesBurned;
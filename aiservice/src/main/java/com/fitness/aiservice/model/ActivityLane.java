@@ -0,0 +1,7 @@
+package com.fitness.aiservice.model;
+
+// Priority lane an activity arrived on; BULK covers batch uploads and backfills
+public enum ActivityLane {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,29 @@
+package com.fitness.aiservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+// Persistent tier of the recommendation cache, keyed by the activity feature key
+@Document(collection = "recommendation_cache")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CachedRecommendation {
+    @Id
+    private String featureKey;
+    private String recommendation;
+    private List<String> improvements;
+    private List<String> suggestions;
+    private List<String> safety;
+
+    // Mongo's TTL monitor removes the entry once this time has passed (TTL index in MongoConfig)
+    private Instant expiresAt;
+}
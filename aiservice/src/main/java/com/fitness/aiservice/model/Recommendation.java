@@ -13,13 +13,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection =  "recommendations")
+// Indexed by MongoConfig on (userId, createdAt, _id) and activityId
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 
 public class Recommendation {
+    // One recommendation per activity: the id is the activity id, so the LLM result replaces the rule-based one
     @Id
+    private String id;
     private String userId;
     private String activityId;
     private String activityType;
@@ -27,6 +30,7 @@ public class Recommendation {
     private List<String> improvements;
     private List<String> suggestions;
     private List<String> safety;
+    private RecommendationTier tier;
 
     @CreatedDate
     private LocalDateTime createdAt;
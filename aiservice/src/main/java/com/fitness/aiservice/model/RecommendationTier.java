@@ -0,0 +1,8 @@
+package com.fitness.aiservice.model;
+
+// Where a recommendation came from; RULE results are stored first and replaced by LLM ones
+public enum RecommendationTier {
+    RULE,
+    LLM,
+    FALLBACK
+}
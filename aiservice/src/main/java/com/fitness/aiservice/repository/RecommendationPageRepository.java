@@ -0,0 +1,12 @@
+package com.fitness.aiservice.repository;
+
+import com.fitness.aiservice.model.Recommendation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Keyset-paginated reads of a user's recommendations, ordered by (createdAt desc, id desc)
+public interface RecommendationPageRepository {
+
+    List<Recommendation> findUserPage(String userId, LocalDateTime afterCreatedAt, String afterId, int limit);
+}
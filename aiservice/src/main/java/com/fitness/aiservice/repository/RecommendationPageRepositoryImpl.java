@@ -0,0 +1,35 @@
+package com.fitness.aiservice.repository;
+
+import com.fitness.aiservice.model.Recommendation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@RequiredArgsConstructor
+class RecommendationPageRepositoryImpl implements RecommendationPageRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Recommendation> findUserPage(String userId, LocalDateTime afterCreatedAt, String afterId, int limit) {
+        Criteria criteria = where("userId").is(userId);
+        if (afterId != null) {
+            // Seek past the cursor on user_created_at_idx instead of skipping
+            criteria.orOperator(
+                    where("createdAt").lt(afterCreatedAt),
+                    where("createdAt").is(afterCreatedAt).and("_id").lt(afterId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Recommendation.class);
+    }
+}
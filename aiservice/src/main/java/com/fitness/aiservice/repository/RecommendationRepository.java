@@ -1,6 +1,7 @@
 package com.fitness.aiservice.repository;
 
 import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
 import org.jspecify.annotations.Nullable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -9,10 +10,12 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RecommendationRepository extends MongoRepository<Recommendation, String> {
+public interface RecommendationRepository extends MongoRepository<Recommendation, String>, RecommendationPageRepository {
 
     List<Recommendation> findByUserId(String userId);
     Optional<Recommendation> findByActivityId(String activityId);
 
+    boolean existsByIdAndTier(String id, RecommendationTier tier);
+
     String activityId(String activityId);
 }
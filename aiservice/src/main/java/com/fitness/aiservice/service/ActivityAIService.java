@@ -1,18 +1,29 @@
 package com.fitness.aiservice.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitness.aiservice.model.Activity;
 import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -20,74 +31,183 @@ import java.util.List;
 public class ActivityAIService {
 
     private final GeminiService geminiService;
-    // It is better to reuse the ObjectMapper instance
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private final RecommendationCache recommendationCache;
 
-    public Recommendation generateRecommendation(Activity activity) {
-        String prompt = createPromptForActivity(activity);
-        String aiResponse = geminiService.getAnswer(prompt);
-        log.info("RESPONSE FROM AI: {}", aiResponse);
+    @Value("${ai.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${ai.batch.max-size:8}")
+    private int batchMaxSize;
+
+    @Value("${ai.batch.max-wait:200ms}")
+    private Duration batchMaxWait;
+
+    @Value("${ai.batch.concurrency:4}")
+    private int batchConcurrency;
 
-        return processAiResponse(activity, aiResponse);
+    @Value("${ai.recommendation-timeout:5m}")
+    private Duration recommendationTimeout;
+
+    private volatile Sinks.Many<PendingActivity> batchSink;
+    private volatile Disposable batchPipeline;
+    // Callers waiting on the pipeline, failed together if it terminates
+    private final Set<PendingActivity> pendingActivities = ConcurrentHashMap.newKeySet();
+
+    // Activities collected for the next batched prompt and the caller waiting on each
+    private record PendingActivity(Activity activity, String featureKey, Sinks.One<Recommendation> result) {
     }
 
-    private Recommendation processAiResponse(Activity activity, String aiResponse) {
-        try {
-            // Note: This assumes geminiService.getAnswer returns the raw JSON response from Google.
-            // If it returns just the extracted text, skip to parsing 'analysisJson'.
-            JsonNode rootNode = mapper.readTree(aiResponse);
+    @PostConstruct
+    void startBatching() {
+        if (!batchEnabled) {
+            return;
+        }
+        subscribeBatching();
+    }
 
-            JsonNode candidates = rootNode.path("candidates");
-            if (candidates.isMissingNode() || candidates.isEmpty()) {
-                throw new IllegalStateException("No candidates found in AI response");
-            }
+    private void subscribeBatching() {
+        Sinks.Many<PendingActivity> sink = Sinks.many().unicast().onBackpressureBuffer();
+        batchSink = sink;
+        // The fair variant only flushes on timeout when there is demand, so busy batch slots
+        // hold buffers back instead of failing the pipeline with an overflow
+        batchPipeline = sink.asFlux()
+                .bufferTimeout(batchMaxSize, batchMaxWait, true)
+                .flatMap(this::processBatch, batchConcurrency)
+                .subscribe(null, this::restartBatching);
+    }
 
-            JsonNode textNode = candidates
-                    .get(0)
-                    .path("content")
-                    .path("parts")
-                    .get(0)
-                    .path("text");
+    // A dead pipeline would leave every later caller waiting; fail what it held and start over
+    private void restartBatching(Throwable error) {
+        log.error("Batch pipeline failed, restarting it", error);
+        List<PendingActivity> stranded = List.copyOf(pendingActivities);
+        subscribeBatching();
+        stranded.forEach(pending -> pending.result().tryEmitError(error));
+    }
 
-            String jsonContent = textNode.asText();
+    @PreDestroy
+    void stopBatching() {
+        if (batchPipeline != null) {
+            batchPipeline.dispose();
+        }
+    }
+
+    public Mono<Recommendation> generateRecommendation(Activity activity) {
+        // A cache hit skips both the prompt and the LLM call
+        String featureKey = recommendationCache.keyOf(activity);
+        Optional<Recommendation> cached = recommendationCache.get(featureKey, activity);
+        if (cached.isPresent()) {
+            log.info("Reusing cached recommendation for activity {} ({})", activity.getId(), featureKey);
+            return Mono.just(cached.get());
+        }
+        Mono<Recommendation> recommendation = batchEnabled
+                ? enqueue(activity, featureKey)
+                : requestSingle(activity, featureKey);
+        // Lanes block on this, so it must always terminate
+        return recommendation.timeout(recommendationTimeout);
+    }
+
+    private Mono<Recommendation> enqueue(Activity activity, String featureKey) {
+        return Mono.defer(() -> {
+            PendingActivity pending = new PendingActivity(activity, featureKey, Sinks.one());
+            pendingActivities.add(pending);
+            try {
+                // Lanes submit concurrently and the unicast sink only accepts serialized emissions
+                batchSink.emitNext(pending, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+            } catch (Exception e) {
+                pendingActivities.remove(pending);
+                return Mono.error(e);
+            }
+            return pending.result().asMono()
+                    .doFinally(signal -> pendingActivities.remove(pending));
+        });
+    }
 
-            // Fix: Better Markdown cleaning to handle ```json and ``` wrapping safely
-            if (jsonContent.contains("```")) {
-                jsonContent = jsonContent.replaceAll("```json", "")
-                        .replaceAll("```", "")
-                        .trim();
+    private Mono<Recommendation> requestSingle(Activity activity, String featureKey) {
+        String prompt = createPromptForActivity(activity);
+        return geminiService.getAnswer(prompt).map(aiResponse -> {
+            log.info("RESPONSE FROM AI: {}", aiResponse);
+            try {
+                Recommendation recommendation = processAiResponse(activity, aiResponse);
+                recommendationCache.put(featureKey, recommendation);
+                return recommendation;
+            } catch (Exception e) {
+                // Fallbacks are not cached so the next similar activity asks the LLM again
+                log.error("Error processing AI response", e);
+                return createDefaultRecommendation(activity);
             }
+        });
+    }
 
-            JsonNode analysisJson = mapper.readTree(jsonContent);
-            JsonNode analysisNode = analysisJson.path("analysis");
-
-            StringBuilder fullAnalysis = new StringBuilder();
-            addAnalysisSection(fullAnalysis, analysisNode, "overall", "Overall:");
-            addAnalysisSection(fullAnalysis, analysisNode, "pace", "Pace:");
-            addAnalysisSection(fullAnalysis, analysisNode, "heartRate", "Heart Rate:");
-            addAnalysisSection(fullAnalysis, analysisNode, "caloriesBurned", "Calories Burned:");
-
-            List<String> improvements = extractImprovements(analysisJson.path("improvements"));
-            List<String> suggestions = extractSuggestions(analysisJson.path("suggestions"));
-            List<String> safety = extractSafetyGuidelines(analysisJson.path("safety"));
-
-            return Recommendation.builder()
-                    .activityId(activity.getId())
-                    .userId(activity.getUserId())
-                    .activityType(activity.getType())
-                    .recommendation(fullAnalysis.toString().trim())
-                    .improvements(improvements)
-                    .suggestions(suggestions)
-                    .safety(safety)
-                    .createdAt(LocalDateTime.now())
-                    .build();
+    /**
+     * Sends one prompt for the whole batch and fans the analyses back out by activity id.
+     * Activities missing from the reply, or whose entry cannot be read, fall back to their own
+     * prompt; if the batch call itself fails every caller gets the error.
+     */
+    private Mono<Void> processBatch(List<PendingActivity> batch) {
+        if (batch.size() == 1) {
+            PendingActivity pending = batch.get(0);
+            return complete(pending, requestSingle(pending.activity(), pending.featureKey()));
+        }
+
+        List<Activity> activities = batch.stream().map(PendingActivity::activity).toList();
+        return geminiService.getAnswer(createPromptForBatch(activities))
+                .map(this::parseBatchResponse)
+                .flatMap(analyses -> Flux.fromIterable(batch)
+                        .flatMap(pending -> complete(pending, fromBatch(pending, analyses.get(pending.activity().getId()))))
+                        .then())
+                .onErrorResume(e -> {
+                    batch.forEach(pending -> pending.result().tryEmitError(e));
+                    return Mono.empty();
+                });
+    }
 
+    private Mono<Recommendation> fromBatch(PendingActivity pending, GeminiResponseParser.Analysis analysis) {
+        if (analysis != null) {
+            Recommendation recommendation = toRecommendation(pending.activity(), analysis);
+            recommendationCache.put(pending.featureKey(), recommendation);
+            return Mono.just(recommendation);
+        }
+        log.info("Activity {} missing from batch reply, requesting it on its own", pending.activity().getId());
+        return requestSingle(pending.activity(), pending.featureKey());
+    }
+
+    private Mono<Void> complete(PendingActivity pending, Mono<Recommendation> recommendation) {
+        return recommendation
+                .doOnNext(pending.result()::tryEmitValue)
+                .doOnError(pending.result()::tryEmitError)
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    // A malformed reply yields no analyses, so every activity in the batch falls back
+    private Map<String, GeminiResponseParser.Analysis> parseBatchResponse(String aiResponse) {
+        log.info("RESPONSE FROM AI (batch): {}", aiResponse);
+        try {
+            return GeminiResponseParser.parseBatch(aiResponse);
         } catch (Exception e) {
-            log.error("Error processing AI response", e);
-            return createDefaultRecommendation(activity);
+            log.error("Error processing batched AI response", e);
+            return Map.of();
         }
     }
 
+    private Recommendation processAiResponse(Activity activity, String aiResponse) throws Exception {
+        return toRecommendation(activity, GeminiResponseParser.parseAnalysis(aiResponse));
+    }
+
+    private Recommendation toRecommendation(Activity activity, GeminiResponseParser.Analysis analysis) {
+        return Recommendation.builder()
+                .activityId(activity.getId())
+                .userId(activity.getUserId())
+                .activityType(activity.getType())
+                .recommendation(analysis.recommendation())
+                .improvements(analysis.improvements())
+                .suggestions(analysis.suggestions())
+                .safety(analysis.safety())
+                .tier(RecommendationTier.LLM)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
     private Recommendation createDefaultRecommendation(Activity activity) {
         // Fix: Corrected typos (singeltonList -> singletonList, safet -> safety)
         // and fixed Arrays.asList syntax structure
@@ -103,75 +223,13 @@ public class ActivityAIService {
                         "Stay hydrated",
                         "Listen to your body"
                 ))
+                .tier(RecommendationTier.FALLBACK)
                 .createdAt(LocalDateTime.now())
                 .build();
     }
 
-    private List<String> extractSafetyGuidelines(JsonNode safetyNode) {
-        List<String> safety = new ArrayList<>();
-        if (safetyNode.isArray()) {
-            safetyNode.forEach(item -> safety.add(item.asText()));
-        }
-        return safety.isEmpty() ?
-                Collections.singletonList("Follow general safety guidelines") :
-                safety;
-    }
-
-    private List<String> extractSuggestions(JsonNode suggestionsNode) {
-        List<String> suggestions = new ArrayList<>();
-        if (suggestionsNode.isArray()) {
-            suggestionsNode.forEach(suggestion -> {
-                String workout = suggestion.path("workout").asText();
-                String description = suggestion.path("description").asText();
-                suggestions.add(String.format("%s: %s", workout, description));
-            });
-        }
-        return suggestions.isEmpty() ?
-                Collections.singletonList("No specific suggestions provided") :
-                suggestions;
-    }
-
-    private List<String> extractImprovements(JsonNode improvementsNode) {
-        List<String> improvements = new ArrayList<>();
-        if (improvementsNode.isArray()) {
-            improvementsNode.forEach(improvement -> {
-                String area = improvement.path("area").asText();
-                String detail = improvement.path("recommendation").asText();
-                improvements.add(String.format("%s: %s", area, detail));
-            });
-        }
-        return improvements.isEmpty() ?
-                Collections.singletonList("No specific improvements provided") :
-                improvements;
-    }
-
-    private void addAnalysisSection(StringBuilder fullAnalysis, JsonNode analysisNode, String key, String prefix) {
-        if (!analysisNode.path(key).isMissingNode()) {
-            fullAnalysis.append(prefix)
-                    .append(" ")
-                    .append(analysisNode.path(key).asText())
-                    .append("\n\n");
-        }
-    }
-
-    private String createPromptForActivity(Activity activity) {
-        return """
-                You are a professional fitness coach and activity analyst.
-                Analyze the following user activity and provide a structured JSON response with:
-                - Detailed performance analysis
-                - Areas for improvement
-                - Personalized next workout suggestions
-                - Important safety guidelines
-
-                Activity Details:
-                - Type: %s
-                - Duration: %d minutes
-                - Calories Burned: %d
-                - Additional Metrics: %s
-
-                Respond with ONLY valid JSON in this exact structure (no extra text, no markdown):
-
-                {
+    // Shape of one analysis; single prompts ask for this object, batched prompts for an array of them
+    private static final String ANALYSIS_SCHEMA = """
                     "analysis": {
                         "overall": "string",
                         "pace": "string",
@@ -193,12 +251,65 @@ public class ActivityAIService {
                     "safety": [
                         "string"
                     ]
-                }
+                """;
+
+    private String createPromptForActivity(Activity activity) {
+        return """
+                You are a professional fitness coach and activity analyst.
+                Analyze the following user activity and provide a structured JSON response with:
+                - Detailed performance analysis
+                - Areas for improvement
+                - Personalized next workout suggestions
+                - Important safety guidelines
+
+                Activity Details:
+                - Type: %s
+                - Duration: %d minutes
+                - Calories Burned: %d
+                - Additional Metrics: %s
+
+                Respond with ONLY valid JSON in this exact structure (no extra text, no markdown):
+
+                {
+                %s}
                 """.formatted(
                 activity.getType(),
                 activity.getDuration(),
                 activity.getCaloriesBurned(),
-                activity.getAdditionalMetrics() != null ? activity.getAdditionalMetrics() : "None provided"
+                activity.getAdditionalMetrics() != null ? activity.getAdditionalMetrics() : "None provided",
+                ANALYSIS_SCHEMA
         );
     }
-}
\ No newline at end of file
+
+    private String createPromptForBatch(List<Activity> activities) {
+        String activityDetails = activities.stream()
+                .map(activity -> "- Activity %s: Type: %s, Duration: %d minutes, Calories Burned: %d, Additional Metrics: %s".formatted(
+                        activity.getId(),
+                        activity.getType(),
+                        activity.getDuration(),
+                        activity.getCaloriesBurned(),
+                        activity.getAdditionalMetrics() != null ? activity.getAdditionalMetrics() : "None provided"))
+                .collect(Collectors.joining("\n"));
+
+        return """
+                You are a professional fitness coach and activity analyst.
+                Analyze each of the following user activities independently and provide for each one:
+                - Detailed performance analysis
+                - Areas for improvement
+                - Personalized next workout suggestions
+                - Important safety guidelines
+
+                Activities:
+                %s
+
+                Respond with ONLY a valid JSON array containing one object per activity, in this exact
+                structure (no extra text, no markdown), with "activityId" set to the activity's id:
+
+                [
+                    {
+                        "activityId": "string",
+                %s    }
+                ]
+                """.formatted(activityDetails, ANALYSIS_SCHEMA);
+    }
+}
@@ -0,0 +1,133 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.ActivityLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs activity processing on fixed sets of single-threaded lanes. Work for the same user
+ * always hashes to the same lane, so a user's activities are handled in arrival order while
+ * different users proceed in parallel. A global semaphore caps how many tasks run at once,
+ * independent of the lane count, to stay within the LLM quota.
+ *
+ * <p>Interactive and bulk activities get separate lanes, so a backfill never queues in front of
+ * a live activity, and bulk work may only hold its own share of the global permits. Interactive
+ * work can use every permit, which keeps its latency bounded however large the backfill is.
+ */
+@Component
+@Slf4j
+public class ActivityDispatcher {
+
+    private final Map<ActivityLane, ExecutorService[]> lanes = new EnumMap<>(ActivityLane.class);
+    private final Semaphore inFlightPermits;
+    private final Semaphore bulkPermits;
+    private final Map<ActivityLane, AtomicInteger> queued = new EnumMap<>(ActivityLane.class);
+    private final Map<ActivityLane, AtomicInteger> running = new EnumMap<>(ActivityLane.class);
+
+    public ActivityDispatcher(MeterRegistry meterRegistry,
+                              @Value("${ai.listener.concurrency:8}") int concurrency,
+                              @Value("${ai.listener.bulk-concurrency:4}") int bulkConcurrency,
+                              @Value("${ai.listener.max-in-flight:4}") int maxInFlight,
+                              @Value("${ai.listener.bulk-max-in-flight:2}") int bulkMaxInFlight,
+                              @Value("${ai.listener.virtual-threads:true}") boolean virtualThreads) {
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.bulkPermits = new Semaphore(Math.min(bulkMaxInFlight, maxInFlight));
+        lanes.put(ActivityLane.INTERACTIVE, createLanes("activity-lane-", concurrency, virtualThreads));
+        lanes.put(ActivityLane.BULK, createLanes("activity-bulk-lane-", bulkConcurrency, virtualThreads));
+
+        for (ActivityLane lane : ActivityLane.values()) {
+            String tag = lane.name().toLowerCase(Locale.ROOT);
+            queued.put(lane, meterRegistry.gauge("ai.listener.queued", Tags.of("lane", tag), new AtomicInteger()));
+            running.put(lane, meterRegistry.gauge("ai.listener.in-flight", Tags.of("lane", tag), new AtomicInteger()));
+        }
+    }
+
+    private static ExecutorService[] createLanes(String namePrefix, int count, boolean virtualThreads) {
+        ExecutorService[] executors = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name(namePrefix + i).factory()
+                    : Thread.ofPlatform().name(namePrefix + i).daemon().factory();
+            executors[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        return executors;
+    }
+
+    public void dispatch(ActivityLane lane, String key, Runnable task) {
+        AtomicInteger laneQueued = queued.get(lane);
+        AtomicInteger laneRunning = running.get(lane);
+        laneQueued.incrementAndGet();
+        laneFor(lane, key).execute(() -> {
+            laneQueued.decrementAndGet();
+            boolean bulk = lane == ActivityLane.BULK;
+            try {
+                acquirePermits(bulk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an in-flight permit", e);
+            }
+            laneRunning.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                laneRunning.decrementAndGet();
+                inFlightPermits.release();
+                if (bulk) {
+                    bulkPermits.release();
+                }
+            }
+        });
+    }
+
+    // Bulk work takes its capped share first, so it can never hold every global permit
+    private void acquirePermits(boolean bulk) throws InterruptedException {
+        if (bulk) {
+            bulkPermits.acquire();
+        }
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            if (bulk) {
+                bulkPermits.release();
+            }
+            throw e;
+        }
+    }
+
+    private ExecutorService laneFor(ActivityLane lane, String key) {
+        ExecutorService[] executors = lanes.get(lane);
+        int hash = key != null ? key.hashCode() : 0;
+        return executors[Math.floorMod(hash, executors.length)];
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService[] executors : lanes.values()) {
+            for (ExecutorService lane : executors) {
+                lane.shutdown();
+            }
+        }
+        for (ExecutorService[] executors : lanes.values()) {
+            for (ExecutorService lane : executors) {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Activity lane did not drain before shutdown, unacked messages will be redelivered");
+                    lane.shutdownNow();
+                }
+            }
+        }
+    }
+}
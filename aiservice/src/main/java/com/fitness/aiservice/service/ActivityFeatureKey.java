@@ -0,0 +1,56 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Activity;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Normalised feature vector of an activity, used to share recommendations between
+ * near-identical workouts. Duration and calories are rounded to the nearest bucket, numeric
+ * metrics to two significant digits and string metrics are lower-cased. Lists (routes,
+ * raw samples) are ignored since they would make every key unique.
+ */
+final class ActivityFeatureKey {
+
+    private static final MathContext METRIC_PRECISION = new MathContext(2);
+
+    private ActivityFeatureKey() {
+    }
+
+    static String of(Activity activity, int durationBucket, int caloriesBucket) {
+        StringBuilder key = new StringBuilder()
+                .append(activity.getType() != null ? activity.getType().toUpperCase(Locale.ROOT) : "-")
+                .append("|d").append(bucket(activity.getDuration(), durationBucket))
+                .append("|c").append(bucket(activity.getCaloriesBurned(), caloriesBucket));
+
+        Map<String, String> metrics = new TreeMap<>();
+        coarsen("", activity.getAdditionalMetrics(), metrics);
+        metrics.forEach((name, value) -> key.append('|').append(name).append('=').append(value));
+        return key.toString();
+    }
+
+    private static String bucket(Integer value, int size) {
+        return value == null ? "-" : Long.toString(Math.round(value / (double) size) * size);
+    }
+
+    private static void coarsen(String prefix, Map<?, ?> source, Map<String, String> target) {
+        if (source == null) {
+            return;
+        }
+        source.forEach((name, value) -> {
+            String path = prefix + name;
+            if (value instanceof Map<?, ?> nested) {
+                coarsen(path + ".", nested, target);
+            } else if (value instanceof Number number) {
+                target.put(path, new BigDecimal(number.toString()).round(METRIC_PRECISION)
+                        .stripTrailingZeros().toPlainString());
+            } else if (value instanceof String || value instanceof Boolean) {
+                target.put(path, value.toString().trim().toLowerCase(Locale.ROOT));
+            }
+        });
+    }
+}
@@ -1,15 +1,20 @@
 package com.fitness.aiservice.service;
 
 
-import com.fitness.aiservice.config.RabbitMqConfig;
 import com.fitness.aiservice.model.Activity;
+import com.fitness.aiservice.model.ActivityLane;
 import com.fitness.aiservice.model.Recommendation;
-import com.fitness.aiservice.repository.RecommendationRepository;
+import com.fitness.aiservice.model.RecommendationTier;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
 
 @Service
 @Slf4j
@@ -18,19 +23,96 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 public class ActivityMessageListener {
 
     private final ActivityAIService aiService;
-    private final RecommendationRepository recommendationRepository;
+    private final RecommendationService recommendationService;
+    private final ActivityDispatcher activityDispatcher;
+    private final RuleBasedRecommendationEngine ruleBasedRecommendationEngine;
+    private final ActivityRetryService activityRetryService;
+    private final ProcessedActivityFilter processedActivityFilter;
 
+    // The container thread only hands the message to a per-user lane, which checks for
+    // duplicates and sends the ack once the recommendation is stored, so prefetch bounds the backlog.
+    // Lanes wait on the Gemini call so a user's activities still complete in order.
+    @RabbitListener(queues = "${rabbitmq.queue.name}", containerFactory = "activityListenerContainerFactory")
+    public void processActivity(Activity activity, Message message, Channel channel,
+                                @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        process(ActivityLane.INTERACTIVE, activity, message, channel, deliveryTag);
+    }
 
-    private String queueName;
+    @RabbitListener(queues = "${rabbitmq.queue.bulk-name}", containerFactory = "activityBulkListenerContainerFactory")
+    public void processBulkActivity(Activity activity, Message message, Channel channel,
+                                    @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        process(ActivityLane.BULK, activity, message, channel, deliveryTag);
+    }
 
-    @RabbitListener(queues = "activity.queue")
+    private void process(ActivityLane lane, Activity activity, Message message, Channel channel, long deliveryTag) {
+        log.info("Received {} activity for processing : {}", lane, activity.getId());
+        activityDispatcher.dispatch(lane, activity.getUserId(), () -> {
+            // Checked on the lane: a filter positive, or any lookup before the startup rebuild,
+            // goes to Mongo and must not hold up the container thread
+            if (processedActivityFilter.isDuplicate(activity.getId())) {
+                log.info("Skipping duplicate delivery of activity {}", activity.getId());
+                acknowledge(channel, deliveryTag, true);
+                return;
+            }
+            Recommendation instant = storeInstantRecommendation(activity);
+            try {
+                Recommendation recommendation = aiService.generateRecommendation(activity).block();
+                // A generic fallback is worse than the rule-based result already stored, so it is
+                // not saved; the message goes through the retry queues for another LLM attempt
+                if (recommendation.getTier() == RecommendationTier.FALLBACK) {
+                    log.warn("LLM gave no usable recommendation for activity {}, retrying later", activity.getId());
+                    retryLater(message, channel, deliveryTag,
+                            new IllegalStateException("LLM returned a fallback recommendation"));
+                    return;
+                }
+                // Keep the original createdAt so the upgrade does not move it in paginated history
+                recommendation.setCreatedAt(instant.getCreatedAt());
+                recommendationService.save(recommendation);
+                processedActivityFilter.markProcessed(activity.getId());
+                acknowledge(channel, deliveryTag, true);
+            } catch (Exception e) {
+                log.error("Failed to process activity {}", activity.getId(), e);
+                retryLater(message, channel, deliveryTag, e);
+            }
+        });
+    }
 
-    public void processActivity(Activity activity) {
-        log.info("Received activity for processing : {}", activity.getId());
-        //log.info("Generated Recommendation : {}" , aiService.generateRecommendation(activity));
-        Recommendation recommendation = aiService.generateRecommendation(activity);
+    // Readers get the rule-based result straight away and the LLM result replaces it later.
+    // Runs on the lane so the container thread never waits on Mongo; a redelivery keeps the
+    // recommendation already stored, and with it the original createdAt.
+    private Recommendation storeInstantRecommendation(Activity activity) {
+        Recommendation instant = ruleBasedRecommendationEngine.recommend(activity);
+        try {
+            return recommendationService.saveIfAbsent(instant);
+        } catch (Exception e) {
+            log.error("Failed to store rule-based recommendation for activity {}", activity.getId(), e);
+            return instant;
+        }
+    }
 
-        recommendationRepository.save(recommendation);
+    // Parks the message in a delayed retry queue instead of requeueing it straight back
+    private void retryLater(Message message, Channel channel, long deliveryTag, Exception cause) {
+        try {
+            activityRetryService.retryOrDeadLetter(message, cause);
+            acknowledge(channel, deliveryTag, true);
+        } catch (Exception e) {
+            log.error("Failed to schedule retry for delivery {}", deliveryTag, e);
+            acknowledge(channel, deliveryTag, false);
+        }
+    }
 
+    private void acknowledge(Channel channel, long deliveryTag, boolean success) {
+        // Channels are not thread-safe and lanes ack concurrently
+        synchronized (channel) {
+            try {
+                if (success) {
+                    channel.basicAck(deliveryTag, false);
+                } else {
+                    channel.basicNack(deliveryTag, false, true);
+                }
+            } catch (IOException e) {
+                log.error("Failed to {} delivery {}", success ? "ack" : "nack", deliveryTag, e);
+            }
+        }
     }
 }
@@ -0,0 +1,85 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.config.RabbitMqConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Moves a failed activity message to the next retry queue, or to the dead-letter queue once
+ * every delay has been used. The copy is confirmed by the broker before the caller acks the
+ * original, so a failure is never lost between the two.
+ */
+@Service
+@Slf4j
+public class ActivityRetryService {
+
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String LAST_ERROR_HEADER = "x-last-error";
+    public static final String FAILED_AT_HEADER = "x-failed-at";
+    public static final String ROUTING_KEY_HEADER = "x-original-routing-key";
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rabbitmq.queue.name}")
+    private String queue;
+
+    @Value("${rabbitmq.retry.exchange:activity.retry.exchange}")
+    private String retryExchange;
+
+    @Value("${rabbitmq.retry.delays:5s,30s,5m}")
+    private List<Duration> retryDelays;
+
+    @Value("${rabbitmq.dead-letter.queue:activity.queue.dlq}")
+    private String deadLetterQueue;
+
+    @Value("${rabbitmq.retry.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    public ActivityRetryService(RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void retryOrDeadLetter(Message message, Exception cause) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempt = properties.getHeader(ATTEMPT_HEADER) instanceof Number previous ? previous.intValue() : 0;
+        properties.setHeader(ATTEMPT_HEADER, attempt + 1);
+        properties.setHeader(LAST_ERROR_HEADER, errorText(cause));
+        properties.setHeader(FAILED_AT_HEADER, System.currentTimeMillis());
+
+        // Replays from the dead-letter queue go back to the lane the message came from
+        properties.setHeader(ROUTING_KEY_HEADER, properties.getReceivedRoutingKey());
+
+        boolean deadLetter = attempt >= retryDelays.size();
+        String sourceQueue = properties.getConsumerQueue() != null ? properties.getConsumerQueue() : queue;
+        String target = deadLetter ? deadLetterQueue : RabbitMqConfig.retryQueueName(sourceQueue, retryDelays.get(attempt));
+        rabbitTemplate.invoke(operations -> {
+            operations.send(retryExchange, target, message);
+            operations.waitForConfirmsOrDie(confirmTimeout);
+            return null;
+        });
+
+        meterRegistry.counter("ai.listener.retries", "target", deadLetter ? "dead-letter" : "retry").increment();
+        if (deadLetter) {
+            log.error("Activity message dead-lettered after {} attempts", attempt + 1, cause);
+        } else {
+            log.warn("Activity message failed (attempt {}), retrying via {}", attempt + 1, target, cause);
+        }
+    }
+
+    private static String errorText(Exception cause) {
+        String text = cause.toString();
+        return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) : text;
+    }
+}
@@ -0,0 +1,125 @@
+package com.fitness.aiservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings, sized from the expected number of entries and the
+ * acceptable false-positive rate. Bits are derived by double hashing a 128-bit murmur3 hash.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) optimalBits / expectedInsertions * Math.log(2)));
+    }
+
+    void put(String value) {
+        long[] hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long[] hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    private long index(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], bitCount);
+    }
+
+    // MurmurHash3 x64 128-bit, seed 0
+    private static long[] hash(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0;
+        long h2 = 0;
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        int blocks = data.length / 16;
+
+        for (int i = 0; i < blocks; i++) {
+            long k1 = littleEndianLong(data, i * 16);
+            long k2 = littleEndianLong(data, i * 16 + 8);
+            h1 ^= mixK1(k1, c1, c2);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2, c1, c2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = data.length - 1; i >= tail; i--) {
+            int shift = ((i - tail) % 8) * 8;
+            if (i - tail >= 8) {
+                k2 |= (data[i] & 0xffL) << shift;
+            } else {
+                k1 |= (data[i] & 0xffL) << shift;
+            }
+        }
+        h1 ^= mixK1(k1, c1, c2);
+        h2 ^= mixK2(k2, c1, c2);
+
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    private static long littleEndianLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xffL);
+        }
+        return value;
+    }
+
+    private static long mixK1(long k1, long c1, long c2) {
+        return Long.rotateLeft(k1 * c1, 31) * c2;
+    }
+
+    private static long mixK2(long k2, long c1, long c2) {
+        return Long.rotateLeft(k2 * c2, 33) * c1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
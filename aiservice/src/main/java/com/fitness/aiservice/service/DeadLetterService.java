@@ -0,0 +1,147 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.dto.DeadLetter;
+import com.fitness.aiservice.model.Activity;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Inspection and bulk replay of the activity dead-letter queue. Both pull messages with
+ * {@code basicGet} on a single channel: peeking requeues everything it read, replaying
+ * re-publishes each message to the activity exchange and acks the batch once it is confirmed.
+ */
+@Service
+@Slf4j
+public class DeadLetterService {
+
+    private static final int MAX_BATCH = 500;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter activityEventMessageConverter;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    @Value("${rabbitmq.exchange.name}")
+    private String exchange;
+
+    @Value("${rabbitmq.routing.key}")
+    private String routingKey;
+
+    @Value("${rabbitmq.dead-letter.queue:activity.queue.dlq}")
+    private String deadLetterQueue;
+
+    @Value("${rabbitmq.retry.confirm-timeout:5000}")
+    private long confirmTimeout;
+
+    public DeadLetterService(RabbitTemplate rabbitTemplate, MessageConverter activityEventMessageConverter) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.activityEventMessageConverter = activityEventMessageConverter;
+    }
+
+    public List<DeadLetter> peek(int limit) {
+        int batch = Math.max(1, Math.min(limit, MAX_BATCH));
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetter> deadLetters = new ArrayList<>();
+            long lastTag = -1;
+            try {
+                GetResponse response;
+                while (deadLetters.size() < batch && (response = channel.basicGet(deadLetterQueue, false)) != null) {
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    deadLetters.add(toDeadLetter(response));
+                }
+            } finally {
+                if (lastTag >= 0) {
+                    channel.basicNack(lastTag, true, true);
+                }
+            }
+            return deadLetters;
+        });
+    }
+
+    /**
+     * Returns how many dead letters were sent back to the activity queue. Dead letters are only
+     * acked once the broker has confirmed every re-publish; otherwise they are all requeued and
+     * the failure is thrown, so a replay is at-least-once and never loses a message.
+     */
+    public int replay(int limit) {
+        int batch = Math.max(1, Math.min(limit, MAX_BATCH));
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            channel.confirmSelect();
+            int count = 0;
+            long lastTag = -1;
+            try {
+                GetResponse response;
+                while (count < batch && (response = channel.basicGet(deadLetterQueue, false)) != null) {
+                    lastTag = response.getEnvelope().getDeliveryTag();
+                    republish(channel, response);
+                    count++;
+                }
+                if (lastTag >= 0) {
+                    channel.waitForConfirmsOrDie(confirmTimeout);
+                    channel.basicAck(lastTag, true);
+                }
+                return count;
+            } catch (IOException | TimeoutException | RuntimeException e) {
+                if (lastTag >= 0) {
+                    channel.basicNack(lastTag, true, true);
+                }
+                throw new RuntimeException("Dead-letter replay was not confirmed by the broker", e);
+            }
+        });
+        log.info("Replayed {} dead-lettered activities", replayed);
+        return replayed;
+    }
+
+    private void republish(Channel channel, GetResponse response) throws IOException {
+        // A replayed message starts with a fresh retry budget
+        Map<String, Object> headers = response.getProps().getHeaders() != null
+                ? new HashMap<>(response.getProps().getHeaders())
+                : new HashMap<>();
+        headers.remove(ActivityRetryService.ATTEMPT_HEADER);
+        Object originalRoutingKey = headers.get(ActivityRetryService.ROUTING_KEY_HEADER);
+        AMQP.BasicProperties properties = response.getProps().builder().headers(headers).build();
+
+        channel.basicPublish(exchange, originalRoutingKey != null ? originalRoutingKey.toString() : routingKey,
+                properties, response.getBody());
+    }
+
+    private DeadLetter toDeadLetter(GetResponse response) {
+        MessageProperties properties = propertiesConverter.toMessageProperties(
+                response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+        Object lastError = properties.getHeader(ActivityRetryService.LAST_ERROR_HEADER);
+        DeadLetter.DeadLetterBuilder deadLetter = DeadLetter.builder()
+                .attempts(properties.getHeader(ActivityRetryService.ATTEMPT_HEADER) instanceof Number attempts
+                        ? attempts.intValue() : null)
+                .lastError(lastError != null ? lastError.toString() : null)
+                .failedAt(properties.getHeader(ActivityRetryService.FAILED_AT_HEADER) instanceof Number failedAt
+                        ? Instant.ofEpochMilli(failedAt.longValue()) : null);
+        try {
+            if (activityEventMessageConverter.fromMessage(new Message(response.getBody(), properties)) instanceof Activity activity) {
+                deadLetter.activityId(activity.getId())
+                        .userId(activity.getUserId())
+                        .activityType(activity.getType());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unreadable dead-lettered message {}", properties.getMessageId(), e);
+        }
+        return deadLetter.build();
+    }
+}
@@ -0,0 +1,247 @@
+package com.fitness.aiservice.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass reader for Gemini replies. The envelope is streamed until the first candidate's
+ * text is reached, and the analysis JSON embedded in that text is parsed directly from the
+ * parser's character buffer. No tree is built for either document and the markdown fences are
+ * skipped by starting at the first JSON token instead of being stripped with regexes.
+ */
+public final class GeminiResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private GeminiResponseParser() {
+    }
+
+    /**
+     * Analysis read from a reply, with the same defaults the tree-based extraction applied to
+     * empty sections.
+     */
+    public record Analysis(String recommendation, List<String> improvements, List<String> suggestions,
+                           List<String> safety) {
+    }
+
+    /** Parses a single-activity reply. */
+    public static Analysis parseAnalysis(String aiResponse) throws IOException {
+        return withCandidateText(aiResponse, '{', parser -> {
+            parser.nextToken();
+            return readAnalysis(parser);
+        });
+    }
+
+    /**
+     * Parses a batched reply into analyses keyed by {@code activityId}. Entries read before a
+     * malformed part of the reply are kept, so only the remaining activities need a fallback.
+     */
+    public static Map<String, Analysis> parseBatch(String aiResponse) throws IOException {
+        Map<String, Analysis> analyses = new HashMap<>();
+        try {
+            withCandidateText(aiResponse, '[', parser -> {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Batch reply is not a JSON array");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    AnalysisReader reader = new AnalysisReader();
+                    String activityId = reader.read(parser);
+                    if (activityId != null) {
+                        analyses.put(activityId, reader.toAnalysis());
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            if (analyses.isEmpty()) {
+                throw e;
+            }
+        }
+        return analyses;
+    }
+
+    private interface TextReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    // Streams to candidates[0].content.parts[0].text and parses the text in place
+    private static <T> T withCandidateText(String aiResponse, char rootStart, TextReader<T> reader) throws IOException {
+        try (JsonParser envelope = JSON_FACTORY.createParser(aiResponse)) {
+            if (envelope.nextToken() != JsonToken.START_OBJECT
+                    || !enterField(envelope, "candidates", JsonToken.START_ARRAY)
+                    || envelope.nextToken() != JsonToken.START_OBJECT
+                    || !enterField(envelope, "content", JsonToken.START_OBJECT)
+                    || !enterField(envelope, "parts", JsonToken.START_ARRAY)
+                    || envelope.nextToken() != JsonToken.START_OBJECT
+                    || !enterField(envelope, "text", JsonToken.VALUE_STRING)) {
+                throw new IllegalStateException("No candidates found in AI response");
+            }
+
+            char[] text = envelope.getTextCharacters();
+            int offset = envelope.getTextOffset();
+            int end = offset + envelope.getTextLength();
+            int start = offset;
+            while (start < end && text[start] != rootStart) {
+                start++;
+            }
+            if (start == end) {
+                throw new IOException("No JSON found in candidate text");
+            }
+            // The embedded parser stops after the root value, so a closing fence is never read
+            try (JsonParser analysis = JSON_FACTORY.createParser(text, start, end - start)) {
+                return reader.read(analysis);
+            }
+        }
+    }
+
+    // Skips sibling fields of the current object until {@code name}, and checks its value type
+    private static boolean enterField(JsonParser parser, String name, JsonToken expected) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals(field)) {
+                return value == expected;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static Analysis readAnalysis(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Analysis is not a JSON object");
+        }
+        AnalysisReader reader = new AnalysisReader();
+        reader.read(parser);
+        return reader.toAnalysis();
+    }
+
+    private static final class AnalysisReader {
+        // overall, pace, heartRate, caloriesBurned - always rendered in this order
+        private final String[] sections = new String[4];
+        private final List<String> improvements = new ArrayList<>();
+        private final List<String> suggestions = new ArrayList<>();
+        private final List<String> safety = new ArrayList<>();
+
+        // Reads one analysis object and returns its activityId, if it has one
+        String read(JsonParser parser) throws IOException {
+            String activityId = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "activityId" -> activityId = value.isScalarValue() ? parser.getValueAsString() : null;
+                    case "analysis" -> readSections(parser, value);
+                    case "improvements" -> readPairs(parser, value, "area", "recommendation", improvements);
+                    case "suggestions" -> readPairs(parser, value, "workout", "description", suggestions);
+                    case "safety" -> readStrings(parser, value, safety);
+                    default -> parser.skipChildren();
+                }
+            }
+            return activityId;
+        }
+
+        private void readSections(JsonParser parser, JsonToken value) throws IOException {
+            if (value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                int index = switch (field) {
+                    case "overall" -> 0;
+                    case "pace" -> 1;
+                    case "heartRate" -> 2;
+                    case "caloriesBurned" -> 3;
+                    default -> -1;
+                };
+                if (index >= 0) {
+                    sections[index] = scalarText(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private static void readPairs(JsonParser parser, JsonToken value, String first, String second,
+                                      List<String> target) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            JsonToken item;
+            while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                String firstValue = "";
+                String secondValue = "";
+                if (item == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        parser.nextToken();
+                        if (first.equals(field)) {
+                            firstValue = scalarText(parser);
+                        } else if (second.equals(field)) {
+                            secondValue = scalarText(parser);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+                target.add(firstValue + ": " + secondValue);
+            }
+        }
+
+        private static void readStrings(JsonParser parser, JsonToken value, List<String> target) throws IOException {
+            if (value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                return;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                target.add(scalarText(parser));
+            }
+        }
+
+        // Containers render as empty text, matching JsonNode.asText()
+        private static String scalarText(JsonParser parser) throws IOException {
+            if (parser.currentToken().isStructStart()) {
+                parser.skipChildren();
+                return "";
+            }
+            return parser.getValueAsString("null");
+        }
+
+        Analysis toAnalysis() {
+            StringBuilder fullAnalysis = new StringBuilder();
+            appendSection(fullAnalysis, "Overall:", sections[0]);
+            appendSection(fullAnalysis, "Pace:", sections[1]);
+            appendSection(fullAnalysis, "Heart Rate:", sections[2]);
+            appendSection(fullAnalysis, "Calories Burned:", sections[3]);
+
+            return new Analysis(fullAnalysis.toString().trim(),
+                    orDefault(improvements, "No specific improvements provided"),
+                    orDefault(suggestions, "No specific suggestions provided"),
+                    orDefault(safety, "Follow general safety guidelines"));
+        }
+
+        private static void appendSection(StringBuilder fullAnalysis, String prefix, String text) {
+            if (text != null) {
+                fullAnalysis.append(prefix).append(' ').append(text).append("\n\n");
+            }
+        }
+
+        private static List<String> orDefault(List<String> values, String fallback) {
+            return values.isEmpty() ? Collections.singletonList(fallback) : values;
+        }
+    }
+}
@@ -1,12 +1,42 @@
 package com.fitness.aiservice.service;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Non-blocking Gemini client. Every attempt takes a token from a client-side bucket sized to
+ * the API quota and runs through a circuit breaker, so a slow or failing upstream is shed
+ * quickly instead of tying up listener lanes. Throttling and server errors are retried with
+ * exponential backoff and jitter, honouring {@code Retry-After} when the API sends one.
+ */
 @Service
+@Slf4j
 public class GeminiService {
     private final WebClient webClient;
 
@@ -16,11 +46,63 @@ public class GeminiService {
     @Value("${gemini.api.key}")
     private String geminiApiKey;
 
-    public GeminiService(WebClient.Builder webClientBuilder){
-        this.webClient = webClientBuilder.build();
+    @Value("${gemini.timeout.call:30s}")
+    private Duration callTimeout;
+
+    @Value("${gemini.rate-limit.max-wait:30s}")
+    private Duration maxLimiterWait;
+
+    @Value("${gemini.retry.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${gemini.retry.backoff:500ms}")
+    private Duration retryBackoff;
+
+    @Value("${gemini.retry.max-backoff:30s}")
+    private Duration maxRetryBackoff;
+
+    private final TokenBucket tokenBucket;
+    private final CircuitBreaker circuitBreaker;
+    private final Timer limiterWait;
+    private final MeterRegistry meterRegistry;
+
+    public GeminiService(WebClient.Builder webClientBuilder,
+                         MeterRegistry meterRegistry,
+                         @Value("${gemini.timeout.connect:5s}") Duration connectTimeout,
+                         @Value("${gemini.timeout.response:30s}") Duration responseTimeout,
+                         @Value("${gemini.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                         @Value("${gemini.rate-limit.burst:10}") int burst,
+                         @Value("${gemini.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                         @Value("${gemini.circuit-breaker.sliding-window:20}") int slidingWindow,
+                         @Value("${gemini.circuit-breaker.wait-in-open:30s}") Duration waitInOpen){
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        this.tokenBucket = new TokenBucket(burst, requestsPerMinute / 60d, System.nanoTime());
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindow)
+                .waitDurationInOpenState(waitInOpen)
+                // Bad requests are our fault, not a sign the upstream is unhealthy
+                .ignoreException(e -> e instanceof WebClientResponseException response
+                        && response.getStatusCode().is4xxClientError()
+                        && response.getStatusCode().value() != 429)
+                .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("gemini");
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        this.meterRegistry = meterRegistry;
+        this.limiterWait = Timer.builder("gemini.limiter.wait")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
 
-    public String getAnswer(String question){
+    public Mono<String> getAnswer(String question){
         Map<String, Object> requestBody = Map.of(
                 "contents", new Object[]{
                         Map.of("parts", new Object[]{
@@ -29,14 +111,86 @@ public class GeminiService {
                 }
         );
 
-        String response = webClient.post()
-                .uri(geminiApiUrl + geminiApiKey)
-                .header("Content-Type" , "application/json")
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+        return Mono.defer(() -> acquirePermit().then(call(requestBody)))
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable failure = signal.failure();
+                    if (signal.totalRetries() >= maxRetries || !isRetryable(failure)) {
+                        return Mono.error(failure);
+                    }
+                    Duration delay = retryDelay(failure, signal.totalRetries());
+                    log.warn("Gemini call failed ({}), retrying in {} ms", failure.toString(), delay.toMillis());
+                    return Mono.delay(delay);
+                })));
+    }
+
+    private Mono<String> call(Map<String, Object> requestBody) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return webClient.post()
+                    .uri(geminiApiUrl + geminiApiKey)
+                    .header("Content-Type" , "application/json")
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(callTimeout)
+                    .doOnEach(signal -> {
+                        if (signal.isOnNext() || signal.isOnError()) {
+                            Timer.builder("gemini.call.latency")
+                                    .tag("outcome", signal.isOnNext() ? "success" : "error")
+                                    .publishPercentiles(0.5, 0.99)
+                                    .register(meterRegistry)
+                                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                        }
+                    });
+        }).transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private Mono<Void> acquirePermit() {
+        long waitNanos = tokenBucket.reserve(System.nanoTime(), maxLimiterWait.toNanos());
+        if (waitNanos < 0) {
+            return Mono.error(new RuntimeException("Gemini rate limit exceeded, request rejected"));
+        }
+        limiterWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        return waitNanos == 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+    }
+
+    private boolean isRetryable(Throwable failure) {
+        if (failure instanceof CallNotPermittedException) {
+            return false;
+        }
+        if (failure instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+        }
+        return failure instanceof WebClientRequestException || failure instanceof TimeoutException;
+    }
+
+    private Duration retryDelay(Throwable failure, long retry) {
+        if (failure instanceof WebClientResponseException response) {
+            Duration retryAfter = parseRetryAfter(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            if (retryAfter != null) {
+                return retryAfter.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : retryAfter;
+            }
+        }
+        long backoff = Math.min(retryBackoff.toMillis() << retry, maxRetryBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return Duration.ofMillis(backoff / 2 + jitter);
+    }
 
-        return response;
+    // Retry-After is either delay-seconds or an HTTP date
+    private static Duration parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                Duration untilDate = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return untilDate.isNegative() ? Duration.ZERO : untilDate;
+            } catch (RuntimeException ignored) {
+                return null;
+            }
+        }
     }
 }
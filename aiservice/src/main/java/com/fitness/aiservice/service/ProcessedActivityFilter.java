@@ -0,0 +1,90 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
+import com.fitness.aiservice.repository.RecommendationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Recognises activities that already have an LLM recommendation, so redeliveries and producer
+ * retries do not pay for another prompt. A Bloom filter answers most lookups in memory; only
+ * its positives are confirmed against the recommendation store. Until the filter has been
+ * rebuilt at startup every lookup goes to the store.
+ */
+@Component
+@Slf4j
+public class ProcessedActivityFilter {
+
+    private final RecommendationRepository recommendationRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final BloomFilter bloomFilter;
+    private final Duration rebuildWindow;
+    private final Counter suppressedDuplicates;
+    private volatile boolean rebuilt;
+
+    public ProcessedActivityFilter(RecommendationRepository recommendationRepository,
+                                   ReactiveMongoTemplate reactiveMongoTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${ai.duplicate-filter.expected-insertions:1000000}") long expectedInsertions,
+                                   @Value("${ai.duplicate-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${ai.duplicate-filter.rebuild-window:7d}") Duration rebuildWindow) {
+        this.recommendationRepository = recommendationRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.rebuildWindow = rebuildWindow;
+        this.suppressedDuplicates = meterRegistry.counter("ai.duplicates.suppressed");
+        meterRegistry.gauge("ai.duplicate-filter.bytes", bloomFilter, BloomFilter::sizeInBytes);
+    }
+
+    public boolean isDuplicate(String activityId) {
+        if (activityId == null || (rebuilt && !bloomFilter.mightContain(activityId))) {
+            return false;
+        }
+        try {
+            boolean duplicate = recommendationRepository.existsByIdAndTier(activityId, RecommendationTier.LLM);
+            if (duplicate) {
+                suppressedDuplicates.increment();
+            }
+            return duplicate;
+        } catch (RuntimeException e) {
+            // Processing twice is cheaper than dropping an activity because the store is unavailable
+            log.warn("Duplicate check failed for activity {}, processing it", activityId, e);
+            return false;
+        }
+    }
+
+    public void markProcessed(String activityId) {
+        bloomFilter.put(activityId);
+    }
+
+    // Loads recently upgraded activities in the background so startup does not wait on Mongo
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Query query = new Query(where("tier").is(RecommendationTier.LLM)
+                .and("createdAt").gte(LocalDateTime.now().minus(rebuildWindow)));
+        query.fields().include("_id");
+
+        reactiveMongoTemplate.find(query, Recommendation.class)
+                .doOnNext(recommendation -> bloomFilter.put(recommendation.getId()))
+                .count()
+                .subscribe(
+                        count -> {
+                            rebuilt = true;
+                            log.info("Duplicate filter rebuilt from {} recommendations", count);
+                        },
+                        e -> log.error("Failed to rebuild duplicate filter, falling back to store lookups", e));
+    }
+}
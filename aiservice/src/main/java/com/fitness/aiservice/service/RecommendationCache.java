@@ -0,0 +1,127 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Activity;
+import com.fitness.aiservice.model.CachedRecommendation;
+import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineStatsCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Caches LLM recommendations by {@link ActivityFeatureKey}, so common workouts reuse an earlier
+ * answer instead of prompting Gemini again. An in-memory Caffeine tier is always used; the
+ * optional Mongo tier keeps entries across restarts and replicas.
+ */
+@Component
+@Slf4j
+public class RecommendationCache {
+
+    private static final String CACHE_NAME = "recommendationCache";
+
+    private final Cache<String, CachedRecommendation> localCache;
+    private final MongoTemplate mongoTemplate;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final int durationBucket;
+    private final int caloriesBucket;
+    private final Counter persistentHits;
+
+    public RecommendationCache(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${ai.recommendation-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${ai.recommendation-cache.ttl:7d}") Duration ttl,
+                               @Value("${ai.recommendation-cache.persistent:false}") boolean persistent,
+                               @Value("${ai.recommendation-cache.duration-bucket:5}") int durationBucket,
+                               @Value("${ai.recommendation-cache.calories-bucket:25}") int caloriesBucket) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        this.durationBucket = durationBucket;
+        this.caloriesBucket = caloriesBucket;
+
+        CaffeineStatsCounter statsCounter = new CaffeineStatsCounter(meterRegistry, CACHE_NAME);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats(() -> statsCounter)
+                .build();
+        statsCounter.registerSizeMetric(localCache);
+        this.persistentHits = meterRegistry.counter("ai.recommendation-cache.persistent.hits");
+    }
+
+    public String keyOf(Activity activity) {
+        return ActivityFeatureKey.of(activity, durationBucket, caloriesBucket);
+    }
+
+    /**
+     * Returns a recommendation for {@code activity} built from a cached answer, if one exists
+     * for its feature key.
+     */
+    public Optional<Recommendation> get(String key, Activity activity) {
+        CachedRecommendation cached = localCache.getIfPresent(key);
+        if (cached == null && persistent) {
+            cached = findPersistent(key);
+            if (cached != null) {
+                persistentHits.increment();
+                localCache.put(key, cached);
+            }
+        }
+        return Optional.ofNullable(cached).map(entry -> toRecommendation(entry, activity));
+    }
+
+    public void put(String key, Recommendation recommendation) {
+        CachedRecommendation entry = CachedRecommendation.builder()
+                .featureKey(key)
+                .recommendation(recommendation.getRecommendation())
+                .improvements(recommendation.getImprovements())
+                .suggestions(recommendation.getSuggestions())
+                .safety(recommendation.getSafety())
+                .expiresAt(Instant.now().plus(ttl))
+                .build();
+        localCache.put(key, entry);
+        if (persistent) {
+            try {
+                mongoTemplate.save(entry);
+            } catch (Exception e) {
+                log.warn("Failed to persist cached recommendation {}", key, e);
+            }
+        }
+    }
+
+    private CachedRecommendation findPersistent(String key) {
+        try {
+            CachedRecommendation cached = mongoTemplate.findById(key, CachedRecommendation.class);
+            // The TTL monitor only runs once a minute, so expired entries can still be returned
+            return cached != null && cached.getExpiresAt().isAfter(Instant.now()) ? cached : null;
+        } catch (Exception e) {
+            log.warn("Failed to read cached recommendation {}", key, e);
+            return null;
+        }
+    }
+
+    private Recommendation toRecommendation(CachedRecommendation cached, Activity activity) {
+        return Recommendation.builder()
+                .activityId(activity.getId())
+                .userId(activity.getUserId())
+                .activityType(activity.getType())
+                .recommendation(cached.getRecommendation())
+                .improvements(cached.getImprovements())
+                .suggestions(cached.getSuggestions())
+                .safety(cached.getSafety())
+                .tier(RecommendationTier.LLM)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
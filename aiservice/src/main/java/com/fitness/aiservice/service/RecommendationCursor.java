@@ -0,0 +1,33 @@
+package com.fitness.aiservice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last recommendation on a page, ordered by {@code (createdAt desc, id desc)}.
+ * Encoded as URL-safe base64 so clients treat it as opaque.
+ */
+record RecommendationCursor(LocalDateTime createdAt, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static RecommendationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new RecommendationCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            // A cursor is client input, so a malformed one is a bad request rather than a server error
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -1,26 +1,118 @@
 package com.fitness.aiservice.service;
 
+import com.fitness.aiservice.dto.RecommendationPage;
 import com.fitness.aiservice.model.Recommendation;
 import com.fitness.aiservice.repository.RecommendationRepository;
-import lombok.RequiredArgsConstructor;
-import org.jspecify.annotations.Nullable;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineStatsCounter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
 public class RecommendationService {
 
+    private static final String CACHE_NAME = "recommendationByActivity";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final RecommendationRepository recommendationRepository;
 
-    public List<Recommendation> getUserRecommendation(String userId) {
-        return recommendationRepository.findByUserId(userId);
+    // Clients poll by activity id; writes through save() invalidate the entry on this instance
+    private final LoadingCache<String, Optional<Recommendation>> byActivityCache;
+
+    public RecommendationService(RecommendationRepository recommendationRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${ai.recommendation-read-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${ai.recommendation-read-cache.ttl:30s}") Duration ttl,
+                                 @Value("${ai.recommendation-read-cache.negative-ttl:2s}") Duration negativeTtl) {
+        this.recommendationRepository = recommendationRepository;
+
+        CaffeineStatsCounter statsCounter = new CaffeineStatsCounter(meterRegistry, CACHE_NAME);
+        this.byActivityCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new LookupExpiry(ttl, negativeTtl))
+                .recordStats(() -> statsCounter)
+                // Documents written before ids were activity ids are only found by the activityId field
+                .build(activityId -> recommendationRepository.findById(activityId)
+                        .or(() -> recommendationRepository.findByActivityId(activityId)));
+        statsCounter.registerSizeMetric(byActivityCache);
+    }
+
+    public Recommendation save(Recommendation recommendation) {
+        recommendation.setId(recommendation.getActivityId());
+        Recommendation saved = recommendationRepository.save(recommendation);
+        byActivityCache.invalidate(recommendation.getActivityId());
+        return saved;
+    }
+
+    /**
+     * Stores the recommendation unless the activity already has one, and returns whichever is
+     * stored. The insert is the existence check, so a first delivery costs one round trip.
+     */
+    public Recommendation saveIfAbsent(Recommendation recommendation) {
+        recommendation.setId(recommendation.getActivityId());
+        try {
+            Recommendation saved = recommendationRepository.insert(recommendation);
+            byActivityCache.invalidate(recommendation.getActivityId());
+            return saved;
+        } catch (DuplicateKeyException e) {
+            return recommendationRepository.findById(recommendation.getId()).orElse(recommendation);
+        }
+    }
+
+    public RecommendationPage getUserRecommendations(String userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        RecommendationCursor after = cursor == null ? null : RecommendationCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists
+        List<Recommendation> recommendations = recommendationRepository.findUserPage(
+                userId,
+                after == null ? null : after.createdAt(),
+                after == null ? null : after.id(),
+                pageSize + 1);
+
+        boolean hasMore = recommendations.size() > pageSize;
+        List<Recommendation> page = hasMore ? recommendations.subList(0, pageSize) : recommendations;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Recommendation last = page.get(page.size() - 1);
+            nextCursor = new RecommendationCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new RecommendationPage(page, nextCursor);
     }
 
     public Recommendation getActivityRecommendation(String activityId) {
-        return recommendationRepository.findByActivityId(activityId)
+        return byActivityCache.get(activityId)
                 .orElseThrow(() -> new RuntimeException(
                         "No recommendation found for activityId: " + activityId));
     }
-}
\ No newline at end of file
+
+    // Misses expire quickly so a recommendation written by another instance shows up soon
+    private record LookupExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<Recommendation>> {
+
+        @Override
+        public long expireAfterCreate(String activityId, Optional<Recommendation> recommendation, long currentTime) {
+            return (recommendation.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String activityId, Optional<Recommendation> recommendation, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(activityId, recommendation, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String activityId, Optional<Recommendation> recommendation, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Activity;
+import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instant recommendation from per-type heuristics on duration, calories and heart rate. It is
+ * stored as soon as an activity arrives so reads have an answer right away, and is replaced
+ * once the LLM analysis is ready.
+ */
+@Component
+public class RuleBasedRecommendationEngine {
+
+    private static final int HIGH_AVG_HEART_RATE = 170;
+    private static final int VERY_HIGH_MAX_HEART_RATE = 190;
+
+    // Typical session length and calorie burn per minute for each activity type
+    private record TypeProfile(String label, int targetMinutes, double minKcalPerMinute, double maxKcalPerMinute,
+                               String nextWorkout, String nextWorkoutDescription, String safetyTip) {
+    }
+
+    private static final TypeProfile DEFAULT_PROFILE = new TypeProfile("workout", 30, 4, 10,
+            "Mixed session", "Combine 20 minutes of steady cardio with 10 minutes of mobility work",
+            "Build intensity gradually over several sessions");
+
+    private static final Map<String, TypeProfile> PROFILES = Map.of(
+            "RUNNING", new TypeProfile("run", 30, 8, 15,
+                    "Easy run", "30-40 minutes at a conversational pace to build aerobic base",
+                    "Wear supportive shoes and increase weekly distance by no more than 10%"),
+            "WALKING", new TypeProfile("walk", 30, 3, 6,
+                    "Brisk walk", "Add short uphill or faster segments to raise the intensity",
+                    "Keep a steady posture and choose well-lit routes"),
+            "CYCLING", new TypeProfile("ride", 45, 6, 12,
+                    "Endurance ride", "60 minutes at a steady effort with a high cadence",
+                    "Always wear a helmet and check your bike before riding"),
+            "SWIMMING", new TypeProfile("swim", 30, 7, 12,
+                    "Technique swim", "Drill sets focusing on breathing and stroke length",
+                    "Swim where a lifeguard is present or with a partner"),
+            "WEIGHT_TRAINING", new TypeProfile("strength session", 45, 3, 8,
+                    "Full-body strength", "Compound lifts with controlled tempo, 3 sets of 8-12 reps",
+                    "Use proper form and a spotter for heavy lifts"),
+            "YOGA", new TypeProfile("yoga session", 30, 2, 5,
+                    "Flow session", "A 30 minute flow focusing on hips and hamstrings",
+                    "Never force a stretch into pain"),
+            "HIIT", new TypeProfile("HIIT session", 20, 10, 16,
+                    "Active recovery", "20-30 minutes of light cardio or mobility before the next HIIT day",
+                    "Allow at least 48 hours between high-intensity sessions"),
+            "CARDIO", new TypeProfile("cardio session", 30, 6, 12,
+                    "Steady cardio", "30 minutes at a moderate, sustainable effort",
+                    "Cool down gradually to let your heart rate recover"),
+            "STRETCHING", new TypeProfile("stretching session", 15, 1, 4,
+                    "Mobility routine", "10-15 minutes of dynamic stretches before your next workout",
+                    "Hold stretches gently and breathe steadily"));
+
+    public Recommendation recommend(Activity activity) {
+        String type = activity.getType() != null ? activity.getType().toUpperCase(Locale.ROOT) : "OTHER";
+        TypeProfile profile = PROFILES.getOrDefault(type, DEFAULT_PROFILE);
+        int duration = activity.getDuration() != null ? activity.getDuration() : 0;
+        int calories = activity.getCaloriesBurned() != null ? activity.getCaloriesBurned() : 0;
+        Number avgHeartRate = heartRate(activity.getAdditionalMetrics(), "avgHeartRate", "avg");
+        Number maxHeartRate = heartRate(activity.getAdditionalMetrics(), "maxHeartRate", "max");
+
+        StringBuilder analysis = new StringBuilder("Overall: A ")
+                .append(duration).append("-minute ").append(profile.label())
+                .append(" burning ").append(calories).append(" kcal.");
+        List<String> improvements = new ArrayList<>();
+        List<String> safety = new ArrayList<>();
+
+        if (duration < profile.targetMinutes() * 2 / 3) {
+            improvements.add("Duration: Build up gradually towards " + profile.targetMinutes() + " minutes per session");
+        } else if (duration > profile.targetMinutes() * 3) {
+            improvements.add("Recovery: Long sessions need extra rest and fuelling before the next hard workout");
+        }
+
+        if (duration > 0) {
+            double kcalPerMinute = (double) calories / duration;
+            analysis.append("\n\nCalories Burned: ").append(Math.round(kcalPerMinute)).append(" kcal per minute");
+            if (kcalPerMinute < profile.minKcalPerMinute()) {
+                analysis.append(", a light effort for this activity.");
+                improvements.add("Intensity: Add a few harder intervals to raise the training effect");
+            } else if (kcalPerMinute > profile.maxKcalPerMinute()) {
+                analysis.append(", a very high effort for this activity.");
+                improvements.add("Intensity: Balance hard sessions with easier ones to avoid overtraining");
+            } else {
+                analysis.append(", a moderate effort for this activity.");
+            }
+        }
+
+        if (avgHeartRate != null) {
+            analysis.append("\n\nHeart Rate: Average of ").append(Math.round(avgHeartRate.doubleValue())).append(" bpm.");
+            if (avgHeartRate.doubleValue() > HIGH_AVG_HEART_RATE) {
+                safety.add("Your average heart rate was high; include easier sessions and monitor how you feel");
+            }
+        }
+        if (maxHeartRate != null && maxHeartRate.doubleValue() > VERY_HIGH_MAX_HEART_RATE) {
+            safety.add("Your heart rate peaked above " + VERY_HIGH_MAX_HEART_RATE + " bpm; consult a doctor if this is unusual for you");
+        }
+
+        if (improvements.isEmpty()) {
+            improvements.add("Consistency: Keep sessions like this one in your weekly routine");
+        }
+        safety.add(profile.safetyTip());
+        safety.add("Stay hydrated");
+
+        return Recommendation.builder()
+                .activityId(activity.getId())
+                .userId(activity.getUserId())
+                .activityType(activity.getType())
+                .recommendation(analysis.toString())
+                .improvements(improvements)
+                .suggestions(List.of(profile.nextWorkout() + ": " + profile.nextWorkoutDescription()))
+                .safety(safety)
+                .tier(RecommendationTier.RULE)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Reported directly (e.g. avgHeartRate) or as the summary of uploaded heart-rate samples
+    private static Number heartRate(Map<String, Object> metrics, String metricName, String summaryField) {
+        if (metrics == null) {
+            return null;
+        }
+        if (metrics.get(metricName) instanceof Number value) {
+            return value;
+        }
+        if (metrics.get("sampleSummaries") instanceof Map<?, ?> summaries
+                && summaries.get("heartRate") instanceof Map<?, ?> heartRate
+                && heartRate.get(summaryField) instanceof Number value) {
+            return value;
+        }
+        return null;
+    }
+}
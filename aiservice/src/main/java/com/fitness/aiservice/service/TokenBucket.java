@@ -0,0 +1,37 @@
+package com.fitness.aiservice.service;
+
+/**
+ * Token bucket that hands out reservations instead of blocking: {@link #reserve} takes a token
+ * (possibly going into debt) and returns how long the caller has to wait before using it.
+ * Callers delay on their own scheduler, so no thread is parked while waiting for quota.
+ */
+final class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefill = nowNanos;
+    }
+
+    /**
+     * Reserves one token and returns the wait in nanoseconds, or {@code -1} without reserving
+     * anything if the wait would exceed {@code maxWaitNanos}.
+     */
+    synchronized long reserve(long nowNanos, long maxWaitNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefill) * tokensPerNano);
+        lastRefill = nowNanos;
+
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+}
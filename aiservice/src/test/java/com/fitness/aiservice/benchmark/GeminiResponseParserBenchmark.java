@@ -0,0 +1,134 @@
+package com.fitness.aiservice.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.aiservice.service.GeminiResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of {@link GeminiResponseParser} against the previous tree + regex
+ * extraction, on Gemini replies of roughly 5 and 20 KB. Run {@link #main}, which adds the GC
+ * profiler so allocation per operation ({@code gc.alloc.rate.norm}) is reported too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeminiResponseParserBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Param({"5", "20"})
+    public int kilobytes;
+
+    private String response;
+
+    @Setup
+    public void setUp() throws IOException {
+        response = realisticResponse(kilobytes * 1024);
+    }
+
+    @Benchmark
+    public GeminiResponseParser.Analysis streaming() throws IOException {
+        return GeminiResponseParser.parseAnalysis(response);
+    }
+
+    @Benchmark
+    public List<String> treeAndRegex() throws IOException {
+        return legacyParse(response);
+    }
+
+    // The extraction ActivityAIService used before the streaming parser
+    static List<String> legacyParse(String aiResponse) throws IOException {
+        JsonNode textNode = MAPPER.readTree(aiResponse).path("candidates").get(0)
+                .path("content").path("parts").get(0).path("text");
+        String jsonContent = textNode.asText();
+        if (jsonContent.contains("```")) {
+            jsonContent = jsonContent.replaceAll("```json", "")
+                    .replaceAll("```", "")
+                    .trim();
+        }
+        JsonNode analysisJson = MAPPER.readTree(jsonContent);
+        JsonNode analysisNode = analysisJson.path("analysis");
+
+        StringBuilder fullAnalysis = new StringBuilder();
+        for (String key : List.of("overall", "pace", "heartRate", "caloriesBurned")) {
+            if (!analysisNode.path(key).isMissingNode()) {
+                fullAnalysis.append(key).append(": ").append(analysisNode.path(key).asText()).append("\n\n");
+            }
+        }
+        List<String> result = new ArrayList<>();
+        result.add(fullAnalysis.toString().trim());
+        analysisJson.path("improvements").forEach(item -> result.add(String.format("%s: %s",
+                item.path("area").asText(), item.path("recommendation").asText())));
+        analysisJson.path("suggestions").forEach(item -> result.add(String.format("%s: %s",
+                item.path("workout").asText(), item.path("description").asText())));
+        analysisJson.path("safety").forEach(item -> result.add(item.asText()));
+        return result;
+    }
+
+    // A fenced analysis padded with improvements and suggestions until the reply reaches targetBytes
+    static String realisticResponse(int targetBytes) throws IOException {
+        Map<String, Object> analysis = new LinkedHashMap<>();
+        analysis.put("overall", "A solid 45 minute tempo run. You held a consistent effort through the middle "
+                + "section and finished slightly faster than you started, which shows good pacing discipline.");
+        analysis.put("pace", "Average pace of 5:18 per km with splits within 15 seconds of each other.");
+        analysis.put("heartRate", "Average heart rate of 152 bpm, mostly in zone 3 with a short zone 4 finish.");
+        analysis.put("caloriesBurned", "612 kcal, in line with the duration and intensity of the session.");
+
+        List<Map<String, String>> improvements = new ArrayList<>();
+        List<Map<String, String>> suggestions = new ArrayList<>();
+        Map<String, Object> reply = new LinkedHashMap<>();
+        reply.put("analysis", analysis);
+        reply.put("improvements", improvements);
+        reply.put("suggestions", suggestions);
+        reply.put("safety", List.of("Warm up for at least 10 minutes", "Stay hydrated during longer runs",
+                "Stop if you feel chest pain or dizziness"));
+
+        String envelope;
+        int i = 0;
+        do {
+            improvements.add(Map.of("area", "Cadence " + i, "recommendation", "Aim for 170-180 steps per minute by "
+                    + "shortening your stride slightly; this reduces impact forces and improves running economy."));
+            suggestions.add(Map.of("workout", "Intervals " + i, "description", "6 x 800m at 5K pace with 90 seconds "
+                    + "of easy jogging between repeats, preceded by a 15 minute warm-up and followed by a cool-down."));
+            i++;
+            String text = "```json\n" + MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(reply) + "\n```";
+            envelope = MAPPER.writeValueAsString(Map.of(
+                    "candidates", List.of(Map.of(
+                            "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                            "finishReason", "STOP")),
+                    "usageMetadata", Map.of("promptTokenCount", 412, "candidatesTokenCount", 1873)));
+        } while (envelope.length() < targetBytes);
+        return envelope;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GeminiResponseParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,49 @@
+package com.fitness.aiservice.event;
+
+import com.fitness.aiservice.model.Activity;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ActivityEventCodecTests {
+
+	// Same payload as the activityservice's ActivityEventCodecTests; both copies of the codec must read and write it
+	static final String GOLDEN_PAYLOAD = "01ff010261310275310752554e4e494e473cf403f0d5a3ad0d008af2a3ad0d00030a64697374616e63654b6d044014cccccccccccd0673706c697473060203d80403ec0406696e646f6f7201";
+
+	@Test
+	void decodesTheGoldenPayloadWrittenByTheActivityservice() {
+		Activity activity = ActivityEventCodec.decode(HexFormat.of().parseHex(GOLDEN_PAYLOAD));
+
+		assertEquals("a1", activity.getId());
+		assertEquals("u1", activity.getUserId());
+		assertEquals("RUNNING", activity.getType());
+		assertEquals(30, activity.getDuration());
+		assertEquals(250, activity.getCaloriesBurned());
+		assertEquals(LocalDateTime.of(2026, 10, 18, 7, 30), activity.getStartTime());
+		assertEquals(LocalDateTime.of(2026, 10, 18, 8, 0, 5), activity.getCreatedAt());
+		assertEquals(Map.of("distanceKm", 5.2, "splits", List.of(300, 310), "indoor", false),
+				activity.getAdditionalMetrics());
+		assertEquals(GOLDEN_PAYLOAD, HexFormat.of().formatHex(ActivityEventCodec.encode(activity)));
+	}
+
+	@Test
+	void reportsATruncatedPayloadAsAConversionError() {
+		byte[] golden = HexFormat.of().parseHex(GOLDEN_PAYLOAD);
+		byte[] truncated = new byte[golden.length - 4];
+		System.arraycopy(golden, 0, truncated, 0, truncated.length);
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(ActivityEventCodec.CONTENT_TYPE);
+
+		assertThrows(MessageConversionException.class,
+				() -> new ActivityEventMessageConverter().fromMessage(new Message(truncated, properties)));
+	}
+}
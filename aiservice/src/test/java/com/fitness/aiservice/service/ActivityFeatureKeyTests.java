@@ -0,0 +1,47 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Activity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ActivityFeatureKeyTests {
+
+	@Test
+	void nearIdenticalActivitiesShareAKey() {
+		Activity first = activity("WALKING", 29, 148, Map.of("distanceKm", 2.43, "surface", "Road"));
+		Activity second = activity("walking", 31, 152, Map.of("surface", "road ", "distanceKm", 2.41));
+
+		assertEquals(ActivityFeatureKey.of(first, 5, 25), ActivityFeatureKey.of(second, 5, 25));
+	}
+
+	@Test
+	void differentBucketsGetDifferentKeys() {
+		Activity walk = activity("WALKING", 30, 150, null);
+		Activity longerWalk = activity("WALKING", 45, 150, null);
+
+		assertNotEquals(ActivityFeatureKey.of(walk, 5, 25), ActivityFeatureKey.of(longerWalk, 5, 25));
+	}
+
+	@Test
+	void flattensNestedMetricsAndIgnoresLists() {
+		Activity run = activity("RUNNING", 30, 300, Map.of(
+				"sampleSummaries", Map.of("heartRate", Map.of("avg", 142.7)),
+				"route", List.of(1, 2, 3)));
+
+		assertEquals("RUNNING|d30|c300|sampleSummaries.heartRate.avg=140", ActivityFeatureKey.of(run, 5, 25));
+	}
+
+	private static Activity activity(String type, int duration, int calories, Map<String, Object> metrics) {
+		Activity activity = new Activity();
+		activity.setType(type);
+		activity.setDuration(duration);
+		activity.setCaloriesBurned(calories);
+		activity.setAdditionalMetrics(metrics);
+		return activity;
+	}
+}
@@ -0,0 +1,36 @@
+package com.fitness.aiservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+	@Test
+	void neverReportsAnInsertedValueAsMissing() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("activity-" + i);
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain("activity-" + i));
+		}
+	}
+
+	@Test
+	void keepsFalsePositivesNearTheConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("activity-" + i);
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("other-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+	}
+}
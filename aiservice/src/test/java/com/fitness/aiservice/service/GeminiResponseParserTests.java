@@ -0,0 +1,67 @@
+package com.fitness.aiservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeminiResponseParserTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Test
+	void readsFencedAnalysisFromTheFirstCandidate() throws IOException {
+		String text = """
+				```json
+				{"safety": ["Stay hydrated"],
+				 "analysis": {"pace": "Steady", "overall": "Good run", "unknown": {"x": 1}},
+				 "improvements": [{"area": "Cadence", "recommendation": "Shorten your stride"}],
+				 "suggestions": [{"workout": "Intervals", "description": "6 x 400m"}]}
+				```""";
+
+		GeminiResponseParser.Analysis analysis = GeminiResponseParser.parseAnalysis(envelope(text));
+
+		assertEquals("Overall: Good run\n\nPace: Steady", analysis.recommendation());
+		assertEquals(List.of("Cadence: Shorten your stride"), analysis.improvements());
+		assertEquals(List.of("Intervals: 6 x 400m"), analysis.suggestions());
+		assertEquals(List.of("Stay hydrated"), analysis.safety());
+	}
+
+	@Test
+	void appliesDefaultsForEmptySections() throws IOException {
+		GeminiResponseParser.Analysis analysis = GeminiResponseParser.parseAnalysis(envelope("{\"analysis\": {}}"));
+
+		assertEquals("", analysis.recommendation());
+		assertEquals(List.of("No specific improvements provided"), analysis.improvements());
+		assertEquals(List.of("No specific suggestions provided"), analysis.suggestions());
+		assertEquals(List.of("Follow general safety guidelines"), analysis.safety());
+	}
+
+	@Test
+	void rejectsAResponseWithoutCandidates() {
+		assertThrows(IllegalStateException.class, () -> GeminiResponseParser.parseAnalysis("{\"candidates\": []}"));
+	}
+
+	@Test
+	void keepsBatchEntriesReadBeforeAMalformedTail() throws IOException {
+		String text = "[{\"activityId\": \"a1\", \"safety\": [\"Rest\"]}, {\"activityId\": \"a2\", \"safety\": [";
+
+		Map<String, GeminiResponseParser.Analysis> analyses = GeminiResponseParser.parseBatch(envelope(text));
+
+		assertEquals(1, analyses.size());
+		assertTrue(analyses.containsKey("a1"));
+		assertEquals(List.of("Rest"), analyses.get("a1").safety());
+	}
+
+	private static String envelope(String text) throws IOException {
+		return MAPPER.writeValueAsString(Map.of("candidates", List.of(Map.of(
+				"finishReason", "STOP",
+				"content", Map.of("role", "model", "parts", List.of(Map.of("text", text)))))));
+	}
+}
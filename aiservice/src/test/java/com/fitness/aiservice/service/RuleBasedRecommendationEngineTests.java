@@ -0,0 +1,55 @@
+package com.fitness.aiservice.service;
+
+import com.fitness.aiservice.model.Activity;
+import com.fitness.aiservice.model.Recommendation;
+import com.fitness.aiservice.model.RecommendationTier;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleBasedRecommendationEngineTests {
+
+	private final RuleBasedRecommendationEngine engine = new RuleBasedRecommendationEngine();
+
+	@Test
+	void producesARuleTierRecommendationForTheActivity() {
+		Recommendation recommendation = engine.recommend(activity("RUNNING", 30, 330, null));
+
+		assertEquals(RecommendationTier.RULE, recommendation.getTier());
+		assertEquals("a1", recommendation.getActivityId());
+		assertEquals("u1", recommendation.getUserId());
+		assertTrue(recommendation.getRecommendation().startsWith("Overall: A 30-minute run burning 330 kcal."));
+		assertTrue(recommendation.getSuggestions().get(0).startsWith("Easy run:"));
+	}
+
+	@Test
+	void flagsShortLightSessions() {
+		Recommendation recommendation = engine.recommend(activity("CYCLING", 10, 30, null));
+
+		assertTrue(recommendation.getImprovements().stream().anyMatch(item -> item.startsWith("Duration:")));
+		assertTrue(recommendation.getImprovements().stream().anyMatch(item -> item.startsWith("Intensity:")));
+	}
+
+	@Test
+	void readsHeartRateFromSampleSummaries() {
+		Recommendation recommendation = engine.recommend(activity("HIIT", 20, 260,
+				Map.of("sampleSummaries", Map.of("heartRate", Map.of("avg", 174.5, "max", 196)))));
+
+		assertTrue(recommendation.getRecommendation().contains("Heart Rate: Average of 175 bpm."));
+		assertTrue(recommendation.getSafety().stream().anyMatch(item -> item.contains("above 190 bpm")));
+	}
+
+	private static Activity activity(String type, int duration, int calories, Map<String, Object> metrics) {
+		Activity activity = new Activity();
+		activity.setId("a1");
+		activity.setUserId("u1");
+		activity.setType(type);
+		activity.setDuration(duration);
+		activity.setCaloriesBurned(calories);
+		activity.setAdditionalMetrics(metrics);
+		return activity;
+	}
+}
@@ -0,0 +1,37 @@
+package com.fitness.aiservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void servesTheBurstWithoutWaiting() {
+		TokenBucket bucket = new TokenBucket(3, 1, 0);
+
+		assertEquals(0, bucket.reserve(0, SECOND));
+		assertEquals(0, bucket.reserve(0, SECOND));
+		assertEquals(0, bucket.reserve(0, SECOND));
+	}
+
+	@Test
+	void spacesReservationsAtTheRefillRateOnceEmpty() {
+		TokenBucket bucket = new TokenBucket(1, 2, 0);
+
+		assertEquals(0, bucket.reserve(0, 10 * SECOND));
+		assertEquals(SECOND / 2, bucket.reserve(0, 10 * SECOND));
+		assertEquals(SECOND, bucket.reserve(0, 10 * SECOND));
+	}
+
+	@Test
+	void rejectsWithoutReservingWhenTheWaitIsTooLong() {
+		TokenBucket bucket = new TokenBucket(1, 1, 0);
+		bucket.reserve(0, SECOND);
+
+		assertEquals(-1, bucket.reserve(0, SECOND / 2));
+		assertEquals(0, bucket.reserve(SECOND, SECOND));
+	}
+}
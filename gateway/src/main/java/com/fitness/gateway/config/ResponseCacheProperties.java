@@ -0,0 +1,26 @@
+package com.fitness.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for {@link com.fitness.gateway.filter.ResponseCacheFilter}. Only routes listed under
+ * {@code routes} are cached, and only for GET paths matching one of their patterns.
+ */
+@ConfigurationProperties("gateway.response-cache")
+public record ResponseCacheProperties(@DefaultValue("64MB") DataSize maxSize,
+                                      @DefaultValue("256KB") DataSize maxEntrySize,
+                                      @DefaultValue Map<String, RouteCache> routes) {
+
+    /**
+     * @param ttl   how long a cached response is served before the backend is asked again
+     * @param paths path patterns, as seen by the client, whose GET responses may be cached
+     */
+    public record RouteCache(Duration ttl, List<String> paths) {
+    }
+}
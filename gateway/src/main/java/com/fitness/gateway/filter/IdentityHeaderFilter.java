@@ -0,0 +1,105 @@
+package com.fitness.gateway.filter;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Forwards the user id from the validated JWT as a signed header, so downstream services can
+ * trust it without calling the user service. Identity headers sent by clients are always removed
+ * first; the signature is an HMAC-SHA256 of {@code userId + "\n" + timestamp} with a secret shared
+ * only between the gateway and the services.
+ *
+ * <p>The forwarded id must be the userservice id ({@code User.id}), which the identity provider
+ * does not know on its own: the token needs a claim carrying it, named by
+ * {@code gateway.identity.user-id-claim} (e.g. a Keycloak user-attribute mapper that puts the
+ * userservice id into {@code user_id}). The standard {@code sub} claim is the provider's own
+ * subject and never matches an activity's userId. Tokens without the claim get no header, so their
+ * requests fall back to user validation downstream.
+ */
+@Component
+public class IdentityHeaderFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String TIMESTAMP_HEADER = "X-User-Id-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-User-Id-Signature";
+
+    private static final Log log = LogFactory.getLog(IdentityHeaderFilter.class);
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final String userIdClaim;
+
+    public IdentityHeaderFilter(@Value("${gateway.identity.secret:}") String secret,
+                                @Value("${gateway.identity.user-id-claim:user_id}") String userIdClaim) {
+        this.key = secret.isBlank() ? null : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.userIdClaim = userIdClaim;
+        if (key == null) {
+            log.warn("gateway.identity.secret is not set; requests are forwarded without an identity header");
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerWebExchange stripped = exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(TIMESTAMP_HEADER);
+                    headers.remove(SIGNATURE_HEADER);
+                }))
+                .build();
+        if (key == null) {
+            return chain.filter(stripped);
+        }
+
+        return stripped.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .mapNotNull(principal -> ((JwtAuthenticationToken) principal).getToken().getClaimAsString(userIdClaim))
+                .map(userId -> withIdentity(stripped, userId))
+                .defaultIfEmpty(stripped)
+                .flatMap(chain::filter);
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, String userId) {
+        String timestamp = Long.toString(Instant.now().getEpochSecond());
+        String signature = sign(userId, timestamp);
+        return exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.set(USER_ID_HEADER, userId);
+                    headers.set(TIMESTAMP_HEADER, timestamp);
+                    headers.set(SIGNATURE_HEADER, signature);
+                }))
+                .build();
+    }
+
+    private String sign(String userId, String timestamp) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal((userId + "\n" + timestamp).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign identity header", e);
+        }
+    }
+
+    // After the security filters, before routing
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
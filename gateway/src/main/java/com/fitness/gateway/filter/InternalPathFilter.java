@@ -0,0 +1,47 @@
+package com.fitness.gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Keeps operator endpoints off the public edge. Paths listed in {@code gateway.internal-paths}
+ * are answered with 404 here and are only reachable on the
+ * services' own ports, since any authenticated user could otherwise trigger them.
+ */
+@Component
+public class InternalPathFilter implements GlobalFilter, Ordered {
+
+    private final List<PathPattern> internalPaths;
+
+    public InternalPathFilter(@Value("${gateway.internal-paths:}") List<String> internalPaths) {
+        this.internalPaths = internalPaths.stream()
+                .filter(path -> !path.isBlank())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (internalPaths.stream().anyMatch(pattern -> pattern.matches(exchange.getRequest().getPath().pathWithinApplication()))) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+
+    // Before routing filters such as StripPrefix, so patterns match the path the client sent
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,330 @@
+package com.fitness.gateway.filter;
+
+import com.fitness.gateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineStatsCounter;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches GET responses of the configured routes in memory and answers conditional requests.
+ * Every cached or cacheable response carries a strong ETag (SHA-256 of the body), and a request
+ * whose {@code If-None-Match} matches a cached entry gets a 304 without reaching the backend.
+ *
+ * <p>A POST, PUT, PATCH or DELETE evicts only the entries it can have changed: those cached for the
+ * written path and for its parent paths, found through an index of keys by path. A write to
+ * {@code /api/activities/42} evicts {@code /api/activities/42} and {@code /api/activities}, and a
+ * create leaves other resources cached. Responses for a path that were in flight during a write
+ * to it are not stored. Keys include the gateway-verified {@code X-User-Id}, so entries are never shared between
+ * users once identity headers are enabled.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final String CACHE_NAME = "gatewayResponses";
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(
+            HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    // Connection-level or per-response headers that must not be replayed from the cache
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.DATE, HttpHeaders.ETAG, HttpHeaders.SET_COOKIE);
+
+    // Long enough to outlast any backend call that started before the write
+    private static final Duration WRITE_MEMORY = Duration.ofMinutes(5);
+
+    private record CacheKey(String routeId, String userId, String path, String query) {
+    }
+
+    private record CachedResponse(HttpHeaders headers, byte[] body, String etag, Duration ttl) {
+    }
+
+    private record RouteRule(Duration ttl, List<PathPattern> paths, RouteMetrics metrics) {
+    }
+
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final Map<String, RouteRule> rules = new HashMap<>();
+    // Cached keys per request path, so a write can evict its path without scanning the cache
+    private final Map<String, Set<CacheKey>> keysByPath = new ConcurrentHashMap<>();
+    // When each path was last written, to drop responses fetched before that write
+    private final Cache<String, Long> recentWrites = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(WRITE_MEMORY)
+            .build();
+    private final long maxEntrySize;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.maxEntrySize = properties.maxEntrySize().toBytes();
+
+        CaffeineStatsCounter statsCounter = new CaffeineStatsCounter(meterRegistry, CACHE_NAME);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((CacheKey key, CachedResponse response) -> response.body().length + 512)
+                .expireAfter(new TtlExpiry())
+                // Runs atomically with the entry, so the index never loses a live key
+                .evictionListener((CacheKey key, CachedResponse response, RemovalCause cause) -> unindex(key))
+                .recordStats(() -> statsCounter)
+                .build();
+        statsCounter.registerSizeMetric(cache);
+
+        properties.routes().forEach((routeId, route) -> rules.put(routeId, new RouteRule(route.ttl(),
+                route.paths().stream().map(PathPatternParser.defaultInstance::parse).toList(),
+                new RouteMetrics(meterRegistry, routeId))));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RouteRule rule = route == null ? null : rules.get(route.getId());
+        if (rule == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            // Invalidate before and after the write, so a read racing with it is not cached either
+            String path = request.getURI().getRawPath();
+            invalidate(path);
+            return chain.filter(exchange).doFinally(signal -> invalidate(path));
+        }
+        if (!HttpMethod.GET.equals(request.getMethod())
+                || rule.paths().stream().noneMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()))) {
+            return chain.filter(exchange);
+        }
+
+        CacheKey key = new CacheKey(route.getId(), request.getHeaders().getFirst(IdentityHeaderFilter.USER_ID_HEADER),
+                normalize(request.getURI().getRawPath()), request.getURI().getRawQuery());
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return writeCached(exchange.getResponse(), cached, matches(ifNoneMatch, cached.etag()), rule.metrics());
+        }
+
+        rule.metrics().misses.increment();
+        return chain.filter(exchange.mutate()
+                .response(new CachingResponse(exchange.getResponse(), key, rule, ifNoneMatch))
+                .build());
+    }
+
+    private Mono<Void> writeCached(ServerHttpResponse response, CachedResponse cached, boolean notModified,
+                                   RouteMetrics metrics) {
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().setETag(cached.etag());
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        metrics.hits.increment();
+        // Counted once per request: the body the backend did not have to produce
+        metrics.bytesSaved.increment(cached.body().length);
+        if (notModified) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    // Buffers a cacheable backend response so it can be hashed, stored and possibly turned into a 304
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final CacheKey key;
+        private final RouteRule rule;
+        private final List<String> ifNoneMatch;
+        private final long startedAt = System.nanoTime();
+
+        CachingResponse(ServerHttpResponse delegate, CacheKey key, RouteRule rule, List<String> ifNoneMatch) {
+            super(delegate);
+            this.key = key;
+            this.rule = rule;
+            this.ifNoneMatch = ifNoneMatch;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable(getStatusCode(), getHeaders())) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(this::write);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(part -> part));
+        }
+
+        private Mono<Void> write(byte[] body) {
+            String etag = etag(body);
+            // Skip the store if the path was written while this response was in flight
+            Long writtenAt = recentWrites.getIfPresent(key.path());
+            if (body.length <= maxEntrySize && (writtenAt == null || writtenAt - startedAt < 0)) {
+                HttpHeaders headers = new HttpHeaders();
+                getHeaders().forEach((name, values) -> {
+                    if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                        headers.addAll(name, values);
+                    }
+                });
+                CachedResponse response = new CachedResponse(headers, body, etag, rule.ttl());
+                cache.asMap().compute(key, (cacheKey, previous) -> {
+                    keysByPath.computeIfAbsent(cacheKey.path(), path -> ConcurrentHashMap.newKeySet()).add(cacheKey);
+                    return response;
+                });
+            }
+
+            getHeaders().setETag(etag);
+            getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            if (matches(ifNoneMatch, etag)) {
+                // Not sent to the client
+                rule.metrics().bytesSaved.increment(body.length);
+                getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                setStatusCode(HttpStatus.NOT_MODIFIED);
+                return getDelegate().setComplete();
+            }
+            getHeaders().setContentLength(body.length);
+            return super.writeWith(Mono.just(bufferFactory().wrap(body)));
+        }
+
+        private boolean isCacheable(HttpStatusCode status, HttpHeaders headers) {
+            String cacheControl = headers.getCacheControl();
+            return HttpStatus.OK.equals(status)
+                    && headers.getContentLength() <= maxEntrySize
+                    && !headers.containsHeader(HttpHeaders.SET_COOKIE)
+                    && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")));
+        }
+    }
+
+    // Evicts the written path and its parents, e.g. the collection a resource was created in
+    private void invalidate(String rawPath) {
+        long now = System.nanoTime();
+        for (String path = normalize(rawPath); !path.isEmpty(); path = path.substring(0, path.lastIndexOf('/'))) {
+            recentWrites.put(path, now);
+            Set<CacheKey> keys = keysByPath.remove(path);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    private void unindex(CacheKey key) {
+        keysByPath.computeIfPresent(key.path(), (path, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static String normalize(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class RouteMetrics {
+
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter bytesSaved;
+
+        RouteMetrics(MeterRegistry meterRegistry, String routeId) {
+            this.hits = meterRegistry.counter("gateway.response-cache.requests", "route", routeId, "result", "hit");
+            this.misses = meterRegistry.counter("gateway.response-cache.requests", "route", routeId, "result", "miss");
+            this.bytesSaved = Counter.builder("gateway.response-cache.bytes-saved")
+                    .tag("route", routeId)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.response-cache.hit-ratio", this, RouteMetrics::hitRatio)
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private double hitRatio() {
+            double total = hits.count() + misses.count();
+            return total == 0 ? 0 : hits.count() / total;
+        }
+    }
+
+    private static final class TtlExpiry implements Expiry<CacheKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(CacheKey key, CachedResponse response, long currentTime) {
+            return response.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(CacheKey key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(CacheKey key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // After IdentityHeaderFilter so the key can include the verified user id
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
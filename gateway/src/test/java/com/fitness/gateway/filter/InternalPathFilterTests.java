@@ -0,0 +1,49 @@
+package com.fitness.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InternalPathFilterTests {
+
+	private final InternalPathFilter filter = new InternalPathFilter(
+			List.of("/api/activities/stats/rebuild", "/api/ai/admin/**"));
+
+	private final AtomicInteger backendCalls = new AtomicInteger();
+
+	private final GatewayFilterChain backend = exchange -> {
+		backendCalls.incrementAndGet();
+		return Mono.empty();
+	};
+
+	@Test
+	void hidesOperatorEndpoints() {
+		assertEquals(HttpStatus.NOT_FOUND, send(HttpMethod.POST, "/api/activities/stats/rebuild").getResponse().getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, send(HttpMethod.POST, "/api/ai/admin/dead-letters/replay").getResponse().getStatusCode());
+		assertEquals(HttpStatus.NOT_FOUND, send(HttpMethod.GET, "/api/ai/admin/dead-letters").getResponse().getStatusCode());
+		assertEquals(0, backendCalls.get());
+	}
+
+	@Test
+	void routesEverythingElse() {
+		send(HttpMethod.GET, "/api/activities/user/u1/stats");
+		send(HttpMethod.GET, "/api/ai/recommendations/u1");
+
+		assertEquals(2, backendCalls.get());
+	}
+
+	private MockServerWebExchange send(HttpMethod method, String path) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.method(method, path));
+		filter.filter(exchange, backend).block();
+		return exchange;
+	}
+}
@@ -0,0 +1,97 @@
+package com.fitness.gateway.filter;
+
+import com.fitness.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseCacheFilterTests {
+
+	private static final Route ROUTE = Route.async()
+			.id("activity-service")
+			.uri("http://localhost")
+			.predicate(exchange -> true)
+			.build();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final ResponseCacheFilter filter = new ResponseCacheFilter(new ResponseCacheProperties(
+			DataSize.ofMegabytes(1), DataSize.ofKilobytes(64),
+			Map.of("activity-service", new ResponseCacheProperties.RouteCache(Duration.ofMinutes(1),
+					List.of("/api/activities/*")))),
+			meterRegistry);
+
+	private final AtomicInteger backendCalls = new AtomicInteger();
+
+	private final GatewayFilterChain backend = exchange -> {
+		backendCalls.incrementAndGet();
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		byte[] body = ("{\"path\":\"" + exchange.getRequest().getPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+		return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+	};
+
+	@Test
+	void servesRepeatedReadsFromTheCache() {
+		MockServerWebExchange first = send(HttpMethod.GET, "/api/activities/1", null);
+		MockServerWebExchange second = send(HttpMethod.GET, "/api/activities/1", null);
+
+		assertEquals(1, backendCalls.get());
+		assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+		assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+	}
+
+	@Test
+	void answersMatchingIfNoneMatchWithNotModified() {
+		String etag = send(HttpMethod.GET, "/api/activities/1", null).getResponse().getHeaders().getETag();
+
+		MockServerWebExchange conditional = send(HttpMethod.GET, "/api/activities/1", etag);
+
+		assertEquals(HttpStatus.NOT_MODIFIED, conditional.getResponse().getStatusCode());
+		assertEquals(1, backendCalls.get());
+		// One body's worth per hit, whether or not the body is sent
+		assertEquals("{\"path\":\"/api/activities/1\"}".length(),
+				meterRegistry.get("gateway.response-cache.bytes-saved").counter().count());
+	}
+
+	@Test
+	void writeEvictsOnlyThePathItTouches() {
+		send(HttpMethod.GET, "/api/activities/1", null);
+		send(HttpMethod.GET, "/api/activities/2", null);
+
+		send(HttpMethod.PUT, "/api/activities/1", null);
+		send(HttpMethod.POST, "/api/activities", null);
+		int callsAfterWrites = backendCalls.get();
+
+		send(HttpMethod.GET, "/api/activities/1", null);
+		send(HttpMethod.GET, "/api/activities/2", null);
+		assertEquals(callsAfterWrites + 1, backendCalls.get());
+	}
+
+	private MockServerWebExchange send(HttpMethod method, String path, String ifNoneMatch) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.method(method, path);
+		if (ifNoneMatch != null) {
+			request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ROUTE);
+		filter.filter(exchange, backend).block();
+		return exchange;
+	}
+}
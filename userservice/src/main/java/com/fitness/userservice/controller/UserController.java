@@ -2,12 +2,19 @@ package com.fitness.userservice.controller;
 
 import com.fitness.userservice.dto.RegisterRequest;
 import com.fitness.userservice.dto.UserResponse;
+import com.fitness.userservice.dto.UserValidationRequest;
+import com.fitness.userservice.service.UserImportService;
 import com.fitness.userservice.service.UserService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,6 +24,7 @@ public class UserController {
 
 
     private UserService userService;
+    private UserImportService userImportService;
 
 
 
@@ -35,4 +43,25 @@ public ResponseEntity<UserResponse> getUserProfile(@PathVariable String userId){
     public ResponseEntity<Boolean> validateUser(@PathVariable String userId){
         return ResponseEntity.ok(userService.existByUserId(userId));
     }
+
+    // Validates a whole batch of users in one call; the response maps each id to true or false
+    @PostMapping("/validate")
+    public ResponseEntity<Map<String, Boolean>> validateUsers(@Valid @RequestBody UserValidationRequest request){
+        return ResponseEntity.ok(userService.existByUserIds(request.getUserIds()));
+    }
+
+    // Bulk registration; one NDJSON progress line is streamed back per imported chunk
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importUsersJson(InputStream body){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> userImportService.importJson(body, out));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<StreamingResponseBody> importUsersCsv(InputStream body){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> userImportService.importCsv(body, out));
+    }
 }
@@ -0,0 +1,13 @@
+package com.fitness.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UserImportError {
+    // 1-based CSV line or JSON array position
+    private long line;
+    private String email;
+    private String reason;
+}
@@ -0,0 +1,18 @@
+package com.fitness.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserImportProgress {
+    // Running totals for the whole import
+    private long processed;
+    private long imported;
+    private long rejected;
+    // Rejections in the chunk this line reports on
+    private List<UserImportError> errors;
+    private boolean done;
+}
@@ -0,0 +1,15 @@
+package com.fitness.userservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+public class UserValidationRequest {
+
+    @NotEmpty(message = "userIds is required")
+    @Size(max = 10000, message = "At most 10000 userIds can be validated at once")
+    private Set<String> userIds;
+}
@@ -1,12 +1,28 @@
 package com.fitness.userservice.repository;
 
 import com.fitness.userservice.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    // Only the ids are selected, so no User entities are loaded
+    @Query("select u.id from User u where u.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<String> findIdsAfter(@Param("after") String after, Pageable pageable);
 }
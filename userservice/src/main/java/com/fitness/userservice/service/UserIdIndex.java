@@ -0,0 +1,151 @@
+package com.fitness.userservice.service;
+
+import com.fitness.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory set of every user id, so validation calls for existing users are answered without a
+ * database round trip. Users are never deleted, so a hit is always a valid answer; a miss only
+ * means this replica has not seen the id yet and the caller must confirm it in the database.
+ *
+ * <p>The set is loaded once the application is ready, updated on registration and rebuilt on a
+ * schedule, which picks up users registered through other replicas.
+ */
+@Component
+@Slf4j
+public class UserIdIndex {
+
+    private final UserRepository repository;
+    private final int loadPageSize;
+
+    private volatile UuidSet ids = new UuidSet(0);
+    // Ids added while a rebuild is reading the table; replayed into the rebuilt set (guarded by this)
+    private Set<UUID> addedDuringRebuild;
+
+    public UserIdIndex(UserRepository repository,
+                       MeterRegistry meterRegistry,
+                       @Value("${user.index.load-page-size:10000}") int loadPageSize) {
+        this.repository = repository;
+        this.loadPageSize = loadPageSize;
+
+        Gauge.builder("user.index.size", this, index -> index.ids.size()).register(meterRegistry);
+        Gauge.builder("user.index.bytes", this, index -> index.ids.sizeInBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("user.index.bytes-per-user", this, UserIdIndex::bytesPerUser)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /** True when the user is known to exist; false means the database has to be asked. */
+    public boolean contains(String userId) {
+        UUID id = parse(userId);
+        return id != null && ids.contains(id);
+    }
+
+    public synchronized void add(String userId) {
+        UUID id = parse(userId);
+        if (id == null) {
+            return;
+        }
+        ids = addTo(ids, id);
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(id);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${user.index.reconcile-interval:300000}",
+            fixedDelayString = "${user.index.reconcile-interval:300000}")
+    public void reconcile() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        synchronized (this) {
+            addedDuringRebuild = new HashSet<>();
+        }
+        try {
+            long started = System.nanoTime();
+            UuidSet rebuilt = readAll();
+            synchronized (this) {
+                for (UUID id : addedDuringRebuild) {
+                    rebuilt = addTo(rebuilt, id);
+                }
+                ids = rebuilt;
+            }
+            log.info("Loaded {} user ids into the index in {} ms ({} bytes per user)", rebuilt.size(),
+                    (System.nanoTime() - started) / 1_000_000, Math.round(bytesPerUser()));
+        } catch (Exception e) {
+            // The previous set stays in place; misses still fall back to the database
+            log.warn("Failed to rebuild the user id index", e);
+        } finally {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+        }
+    }
+
+    // Keyset pages ordered by id, so the load never holds more than one page of strings
+    private UuidSet readAll() {
+        UuidSet loaded = new UuidSet((int) Math.min(Integer.MAX_VALUE, repository.count()));
+        String after = "";
+        List<String> page;
+        do {
+            page = repository.findIdsAfter(after, PageRequest.ofSize(loadPageSize));
+            for (String userId : page) {
+                UUID id = parse(userId);
+                if (id != null) {
+                    loaded = addTo(loaded, id);
+                }
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() == loadPageSize);
+        return loaded;
+    }
+
+    private static UuidSet addTo(UuidSet set, UUID id) {
+        if (set.add(id)) {
+            return set;
+        }
+        UuidSet grown = set.copyWithCapacityFor(set.size() * 2);
+        grown.add(id);
+        return grown;
+    }
+
+    private double bytesPerUser() {
+        UuidSet current = ids;
+        return current.size() == 0 ? 0 : (double) current.sizeInBytes() / current.size();
+    }
+
+    private static UUID parse(String userId) {
+        if (userId == null || userId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID id = UUID.fromString(userId);
+            return id.getMostSignificantBits() == 0 && id.getLeastSignificantBits() == 0 ? null : id;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
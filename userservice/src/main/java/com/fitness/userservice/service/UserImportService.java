@@ -0,0 +1,288 @@
+package com.fitness.userservice.service;
+
+import com.fitness.userservice.dto.RegisterRequest;
+import com.fitness.userservice.dto.UserImportError;
+import com.fitness.userservice.dto.UserImportProgress;
+import com.fitness.userservice.model.User;
+import com.fitness.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SequenceWriter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registers users from a JSON array or a CSV upload in chunks. Each chunk costs one query for the
+ * emails already taken and one transaction of JDBC-batched inserts, and a progress line is written
+ * to the caller after every chunk, so a large import needs a few round trips per chunk rather than
+ * two per user. Rows are read from the request as they are imported and only one chunk is held at
+ * a time; the exception is the set of accepted emails, one entry per row, kept to reject
+ * duplicates within the upload.
+ *
+ * <p>If a chunk fails to insert, typically because an email was registered concurrently, its rows
+ * are retried one per transaction so only the offending rows are rejected.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private final UserRepository repository;
+    private final UserIdIndex userIdIndex;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Matches hibernate.jdbc.batch_size so each chunk is flushed as full JDBC batches
+    @Value("${user.import.chunk-size:500}")
+    private int chunkSize;
+
+    public UserImportService(UserRepository repository, UserIdIndex userIdIndex, ObjectMapper objectMapper,
+                             Validator validator, TransactionTemplate transactionTemplate) {
+        this.repository = repository;
+        this.userIdIndex = userIdIndex;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    private record ImportRow(long line, RegisterRequest request) {
+    }
+
+    public void importJson(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(in);
+             Import anImport = new Import(out)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Expected a JSON array of users");
+            }
+            long line = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                anImport.add(new ImportRow(++line, objectMapper.readValue(parser, RegisterRequest.class)));
+            }
+            anImport.finish();
+        }
+    }
+
+    /** Reads a CSV with a header row naming the email, password, firstName and lastName columns. */
+    public void importCsv(InputStream in, OutputStream out) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             Import anImport = new Import(out)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new RuntimeException("CSV header is required");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = parseCsvLine(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("email") || !columns.containsKey("password")) {
+                throw new RuntimeException("CSV header must contain email and password columns");
+            }
+
+            long line = 1;
+            String row;
+            while ((row = reader.readLine()) != null) {
+                line++;
+                if (row.isBlank()) {
+                    continue;
+                }
+                List<String> values = parseCsvLine(row);
+                RegisterRequest request = new RegisterRequest();
+                request.setEmail(column(values, columns, "email"));
+                request.setPassword(column(values, columns, "password"));
+                request.setFirstName(column(values, columns, "firstname"));
+                request.setLastName(column(values, columns, "lastname"));
+                anImport.add(new ImportRow(line, request));
+            }
+            anImport.finish();
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= values.size() ? null : values.get(index);
+    }
+
+    // RFC 4180 fields on a single line: commas, quoted fields and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Collects rows into chunks, imports each full chunk and reports progress after it
+    private class Import implements AutoCloseable {
+
+        private final SequenceWriter progressWriter;
+        private final List<ImportRow> chunk = new ArrayList<>();
+        // Emails already accepted by this import, so duplicates within the upload are rejected too.
+        // Grows with the upload, by one email per accepted row
+        private final Set<String> seenEmails = new HashSet<>();
+        private long processed;
+        private long imported;
+        private long rejected;
+        private boolean finished;
+
+        Import(OutputStream out) {
+            this.progressWriter = objectMapper.writer().withRootValueSeparator("\n").writeValues(out);
+        }
+
+        void add(ImportRow row) {
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flushChunk(false);
+            }
+        }
+
+        void finish() {
+            flushChunk(true);
+            finished = true;
+            log.info("Imported {} users, rejected {}", imported, rejected);
+        }
+
+        // On a read error the rows before it are still imported, but the last line is not marked done
+        @Override
+        public void close() {
+            try {
+                if (!finished && !chunk.isEmpty()) {
+                    flushChunk(false);
+                }
+            } finally {
+                progressWriter.close();
+            }
+        }
+
+        private void flushChunk(boolean done) {
+            List<UserImportError> errors = new ArrayList<>();
+            List<ImportRow> valid = new ArrayList<>();
+            for (ImportRow row : chunk) {
+                Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(row.request());
+                if (!violations.isEmpty()) {
+                    errors.add(error(row, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining("; "))));
+                } else if (!seenEmails.add(row.request().getEmail())) {
+                    errors.add(error(row, "Duplicate email in import"));
+                } else {
+                    valid.add(row);
+                }
+            }
+
+            if (!valid.isEmpty()) {
+                Set<String> taken = new HashSet<>(repository.findExistingEmails(
+                        valid.stream().map(row -> row.request().getEmail()).toList()));
+                List<ImportRow> inserted = new ArrayList<>();
+                for (ImportRow row : valid) {
+                    if (taken.contains(row.request().getEmail())) {
+                        errors.add(error(row, "Email already exists"));
+                    } else {
+                        inserted.add(row);
+                    }
+                }
+                insert(inserted, errors);
+            }
+
+            processed += chunk.size();
+            rejected += errors.size();
+            chunk.clear();
+            progressWriter.write(new UserImportProgress(processed, imported, rejected, errors, done));
+            progressWriter.flush();
+        }
+
+        private void insert(List<ImportRow> rows, List<UserImportError> errors) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                persist(rows);
+                imported += rows.size();
+            } catch (Exception e) {
+                // The whole chunk was rolled back; retry row by row so only the failing rows are rejected
+                log.warn("Failed to insert a chunk of {} imported users, retrying them one at a time", rows.size(), e);
+                for (ImportRow row : rows) {
+                    try {
+                        persist(List.of(row));
+                        imported++;
+                    } catch (Exception rowError) {
+                        errors.add(error(row, "Insert failed: "
+                                + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage()));
+                    }
+                }
+            }
+        }
+
+        // Fresh entities on every attempt: an id assigned by a rolled-back persist must not be reused
+        private void persist(List<ImportRow> rows) {
+            List<User> users = rows.stream().map(row -> toUser(row.request())).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                users.forEach(entityManager::persist);
+                entityManager.flush();
+                // Keeps the persistence context from growing across chunks
+                entityManager.clear();
+            });
+            users.forEach(user -> userIdIndex.add(user.getId()));
+        }
+    }
+
+    private static UserImportError error(ImportRow row, String reason) {
+        return new UserImportError(row.line(), row.request().getEmail(), reason);
+    }
+
+    private static User toUser(RegisterRequest request) {
+        User user = new User();
+        user.setEmail(request.getEmail());
+        user.setPassword(request.getPassword());
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        return user;
+    }
+}
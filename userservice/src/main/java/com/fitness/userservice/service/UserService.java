@@ -7,8 +7,17 @@ import com.fitness.userservice.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @Slf4j
 public class UserService {
@@ -17,6 +26,13 @@ public class UserService {
 
     private UserRepository repository;
 
+    @Autowired
+    private UserIdIndex userIdIndex;
+
+    // Keeps each IN list well below the driver's bind parameter limit
+    @Value("${user.validation.chunk-size:1000}")
+    private int validationChunkSize;
+
     public UserResponse register(RegisterRequest request) {
         if (repository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email already exists");
@@ -29,6 +45,7 @@ public class UserService {
         user.setLastName(request.getLastName());
 
         User savedUser = repository.save(user);
+        userIdIndex.add(savedUser.getId());
         return mapToResponse(savedUser);
     }
 
@@ -54,6 +71,37 @@ public class UserService {
 
     public  Boolean existByUserId(String userId) {
         log.info("Calling User Validatoin API for userId: {}", userId);
-        return repository.existsById(Long.valueOf(userId));
+        if (userIdIndex.contains(userId)) {
+            return true;
+        }
+        // Not seen by this replica yet, e.g. registered elsewhere since the last reconcile
+        boolean exists = repository.existsById(userId);
+        if (exists) {
+            userIdIndex.add(userId);
+        }
+        return exists;
+    }
+
+    public Map<String, Boolean> existByUserIds(Collection<String> userIds) {
+        log.info("Calling User Validation API for {} userIds", userIds.size());
+        List<String> ids = new ArrayList<>(userIds);
+        Set<String> existing = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String id : ids) {
+            if (userIdIndex.contains(id)) {
+                existing.add(id);
+            } else {
+                unknown.add(id);
+            }
+        }
+        for (int from = 0; from < unknown.size(); from += validationChunkSize) {
+            List<String> found = repository.findExistingIds(unknown.subList(from, Math.min(from + validationChunkSize, unknown.size())));
+            found.forEach(userIdIndex::add);
+            existing.addAll(found);
+        }
+
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        ids.forEach(id -> result.put(id, existing.contains(id)));
+        return result;
     }
 }
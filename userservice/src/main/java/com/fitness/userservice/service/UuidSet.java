@@ -0,0 +1,90 @@
+package com.fitness.userservice.service;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing hash set of UUIDs stored as two parallel {@code long} arrays, 16 bytes per
+ * slot with no per-entry objects. The nil UUID marks an empty slot and cannot be stored.
+ *
+ * <p>Writers must be externally synchronized. Readers need no lock: a half-written slot can only
+ * match the id being written, so a lookup racing with an insert may miss that id but never
+ * reports one that was not added. Growing the table is done by the owner through
+ * {@link #copyWithCapacityFor}, so readers never observe a half-rehashed table.
+ */
+final class UuidSet {
+
+    private static final double MAX_LOAD = 0.5;
+
+    private final long[] mostSigBits;
+    private final long[] leastSigBits;
+    private final int mask;
+    private int size;
+
+    UuidSet(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, Math.min(1 << 30, expectedSize / MAX_LOAD)) - 1) << 1;
+        this.mostSigBits = new long[capacity];
+        this.leastSigBits = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    boolean contains(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        for (int slot = slot(msb, lsb); ; slot = (slot + 1) & mask) {
+            long slotMsb = mostSigBits[slot];
+            long slotLsb = leastSigBits[slot];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return true;
+            }
+            if (slotMsb == 0 && slotLsb == 0) {
+                return false;
+            }
+        }
+    }
+
+    /** Adds the id and returns false if the set is full; the caller then grows it. */
+    boolean add(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (msb == 0 && lsb == 0) {
+            throw new IllegalArgumentException("The nil UUID cannot be stored");
+        }
+        for (int slot = slot(msb, lsb); ; slot = (slot + 1) & mask) {
+            if (mostSigBits[slot] == msb && leastSigBits[slot] == lsb) {
+                return true;
+            }
+            if (mostSigBits[slot] == 0 && leastSigBits[slot] == 0) {
+                if (size + 1 > mostSigBits.length * MAX_LOAD) {
+                    return false;
+                }
+                leastSigBits[slot] = lsb;
+                mostSigBits[slot] = msb;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    UuidSet copyWithCapacityFor(int expectedSize) {
+        UuidSet copy = new UuidSet(expectedSize);
+        for (int slot = 0; slot < mostSigBits.length; slot++) {
+            if (mostSigBits[slot] != 0 || leastSigBits[slot] != 0) {
+                copy.add(new UUID(mostSigBits[slot], leastSigBits[slot]));
+            }
+        }
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long sizeInBytes() {
+        return 16L * mostSigBits.length;
+    }
+
+    private int slot(long msb, long lsb) {
+        long hash = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
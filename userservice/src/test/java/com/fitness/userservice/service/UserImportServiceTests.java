@@ -0,0 +1,160 @@
+package com.fitness.userservice.service;
+
+import com.fitness.userservice.model.User;
+import com.fitness.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTests {
+
+	private static final String HEADER = "email,password,firstName,lastName\n";
+
+	private final ObjectMapper objectMapper = new JsonMapper();
+	private final UserRepository repository = mock(UserRepository.class);
+	private final UserIdIndex userIdIndex = mock(UserIdIndex.class);
+	private final EntityManager entityManager = mock(EntityManager.class);
+	// Emails the database reports as taken, and emails whose insert fails as if registered concurrently
+	private final Set<String> existing = Set.of("taken@example.com");
+	private final Set<String> failingInserts = Set.of("race@example.com");
+	private final List<String> persisted = new ArrayList<>();
+
+	private UserImportService service;
+
+	@BeforeEach
+	void setUp() {
+		when(repository.findExistingEmails(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> emails = invocation.getArgument(0);
+			return emails.stream().filter(existing::contains).toList();
+		});
+		doAnswer(invocation -> {
+			User user = invocation.getArgument(0);
+			if (failingInserts.contains(user.getEmail())) {
+				throw new PersistenceException("duplicate key value violates unique constraint \"users_email_key\"");
+			}
+			user.setId(UUID.randomUUID().toString());
+			persisted.add(user.getEmail());
+			return null;
+		}).when(entityManager).persist(any(User.class));
+
+		service = new UserImportService(repository, userIdIndex, objectMapper,
+				Validation.buildDefaultValidatorFactory().getValidator(),
+				new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(service, "entityManager", entityManager);
+		ReflectionTestUtils.setField(service, "chunkSize", 2);
+	}
+
+	@Test
+	void splitsPlainCsvFields() {
+		assertEquals(List.of("a@example.com", "secret1", "Ann", ""),
+				UserImportService.parseCsvLine("a@example.com,secret1,Ann,"));
+	}
+
+	@Test
+	void keepsCommasAndEscapedQuotesInsideQuotedFields() {
+		assertEquals(List.of("b@example.com", "pa,ss\"word", "Bo"),
+				UserImportService.parseCsvLine("b@example.com,\"pa,ss\"\"word\",Bo"));
+	}
+
+	@Test
+	void importsInChunksAndReportsRunningTotals() throws IOException {
+		List<JsonNode> progress = importCsv(HEADER
+				+ "a@example.com,secret1,Ann,A\n"
+				+ "b@example.com,secret1,Bo,B\n"
+				+ "c@example.com,secret1,Cy,C\n"
+				+ "d@example.com,secret1,Di,D\n"
+				+ "e@example.com,secret1,Ed,E\n");
+
+		assertEquals(3, progress.size());
+		assertEquals(List.of(2L, 4L, 5L), progress.stream().map(line -> line.get("processed").asLong()).toList());
+		assertEquals(List.of(2L, 4L, 5L), progress.stream().map(line -> line.get("imported").asLong()).toList());
+		assertFalse(progress.get(1).get("done").asBoolean());
+		assertTrue(progress.get(2).get("done").asBoolean());
+		assertEquals(0, progress.get(2).get("rejected").asLong());
+		verify(repository, times(3)).findExistingEmails(anyCollection());
+		verify(userIdIndex, times(5)).add(any());
+	}
+
+	@Test
+	void rejectsDuplicatesInTheUploadAndEmailsThatAlreadyExist() throws IOException {
+		List<JsonNode> progress = importCsv(HEADER
+				+ "a@example.com,secret1,Ann,A\n"
+				+ "a@example.com,secret2,Ann,A\n"
+				+ "taken@example.com,secret1,Tom,T\n"
+				+ "not-an-email,secret1,Nina,N\n");
+
+		JsonNode last = progress.get(progress.size() - 1);
+		assertEquals(4, last.get("processed").asLong());
+		assertEquals(1, last.get("imported").asLong());
+		assertEquals(3, last.get("rejected").asLong());
+		assertEquals(List.of("a@example.com"), persisted);
+		assertEquals("Duplicate email in import", reason(progress, 3));
+		assertEquals("Email already exists", reason(progress, 4));
+		assertEquals("Invalid email format", reason(progress, 5));
+	}
+
+	@Test
+	void retriesAFailedChunkRowByRowSoOnlyTheOffendingRowIsRejected() throws IOException {
+		List<JsonNode> progress = importCsv(HEADER
+				+ "race@example.com,secret1,Ray,R\n"
+				+ "b@example.com,secret1,Bo,B\n");
+
+		JsonNode last = progress.get(progress.size() - 1);
+		assertEquals(1, last.get("imported").asLong());
+		assertEquals(1, last.get("rejected").asLong());
+		assertEquals(List.of("b@example.com"), persisted);
+		assertTrue(reason(progress, 2).startsWith("Insert failed: "));
+		verify(userIdIndex, times(1)).add(any());
+	}
+
+	private List<JsonNode> importCsv(String csv) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out);
+		List<JsonNode> progress = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			progress.add(objectMapper.readTree(line));
+		}
+		return progress;
+	}
+
+	// Reason reported for the given CSV line, the header being line 1
+	private static String reason(List<JsonNode> progress, long line) {
+		for (JsonNode chunk : progress) {
+			for (JsonNode error : chunk.get("errors")) {
+				if (error.get("line").asLong() == line) {
+					return error.get("reason").asString();
+				}
+			}
+		}
+		return null;
+	}
+}
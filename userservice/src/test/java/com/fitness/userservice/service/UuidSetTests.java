@@ -0,0 +1,48 @@
+package com.fitness.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidSetTests {
+
+	@Test
+	void containsEveryAddedIdAndNothingElse() {
+		UuidSet set = new UuidSet(1_000);
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			UUID id = UUID.randomUUID();
+			ids.add(id);
+			assertTrue(set.add(id));
+		}
+
+		ids.forEach(id -> assertTrue(set.contains(id)));
+		for (int i = 0; i < 10_000; i++) {
+			assertFalse(set.contains(UUID.randomUUID()));
+		}
+		assertEquals(1_000, set.size());
+	}
+
+	@Test
+	void reportsFullAndKeepsIdsWhenCopiedToALargerSet() {
+		UuidSet set = new UuidSet(16);
+		List<UUID> ids = new ArrayList<>();
+		UUID id = UUID.randomUUID();
+		while (set.add(id)) {
+			ids.add(id);
+			id = UUID.randomUUID();
+		}
+
+		UuidSet grown = set.copyWithCapacityFor(set.size() * 2);
+		assertTrue(grown.add(id));
+		ids.forEach(existing -> assertTrue(grown.contains(existing)));
+		assertTrue(grown.contains(id));
+		assertEquals(ids.size() + 1, grown.size());
+	}
+}